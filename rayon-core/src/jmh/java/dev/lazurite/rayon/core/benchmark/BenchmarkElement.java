@@ -0,0 +1,30 @@
+package dev.lazurite.rayon.core.benchmark;
+
+import com.jme3.bullet.collision.shapes.BoxCollisionShape;
+import dev.lazurite.rayon.core.api.PhysicsElement;
+import dev.lazurite.rayon.core.impl.physics.space.MinecraftSpace;
+import dev.lazurite.rayon.core.impl.physics.space.body.ElementRigidBody;
+
+/**
+ * A one block cube which does nothing of its own when stepped.
+ */
+public class BenchmarkElement implements PhysicsElement {
+    private final ElementRigidBody rigidBody;
+
+    public BenchmarkElement(MinecraftSpace space) {
+        this.rigidBody = new ElementRigidBody(this, space, new BoxCollisionShape(0.5f));
+    }
+
+    @Override
+    public void step(MinecraftSpace space) {
+    }
+
+    @Override
+    public ElementRigidBody getRigidBody() {
+        return this.rigidBody;
+    }
+
+    @Override
+    public void reset() {
+    }
+}
@@ -0,0 +1,228 @@
+package dev.lazurite.rayon.core.benchmark;
+
+import dev.lazurite.rayon.core.impl.physics.space.MinecraftSpace;
+import dev.lazurite.rayon.core.impl.physics.space.environment.FluidResistance;
+import dev.lazurite.rayon.core.impl.physics.space.environment.TerrainManager;
+import net.minecraft.Bootstrap;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.block.entity.BlockEntity;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.player.PlayerEntity;
+import net.minecraft.fluid.Fluid;
+import net.minecraft.fluid.FluidState;
+import net.minecraft.fluid.Fluids;
+import net.minecraft.item.map.MapState;
+import net.minecraft.recipe.RecipeManager;
+import net.minecraft.scoreboard.Scoreboard;
+import net.minecraft.sound.SoundCategory;
+import net.minecraft.sound.SoundEvent;
+import net.minecraft.tag.TagManager;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Direction;
+import net.minecraft.util.profiler.DummyProfiler;
+import net.minecraft.util.registry.DynamicRegistryManager;
+import net.minecraft.world.BlockView;
+import net.minecraft.world.TickScheduler;
+import net.minecraft.world.World;
+import net.minecraft.world.biome.Biome;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.ChunkManager;
+import net.minecraft.world.chunk.ChunkStatus;
+import net.minecraft.world.chunk.light.LightingProvider;
+import net.minecraft.world.dimension.DimensionType;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A server-side overworld with a flat stone floor, so that a {@link MinecraftSpace} can be made and
+ * stepped outside of the game. Blocks are handed out through {@link ChunkManager#getChunk(int, int)},
+ * which is where {@link TerrainManager} and {@link FluidResistance} read them from in game. West of the
+ * origin, the two blocks above the floor hold still water. The water only exists as a fluid state (the
+ * block is still air) since liquid blocks would be loaded using pattern shapes, which need the game.
+ * Everything the space never touches (sounds, maps, scoreboards and so on) is left empty.
+ */
+public class BenchmarkWorld extends World {
+    /* The y level of the first block above the floor */
+    public static final int FLOOR = 64;
+    public static final int WATER_DEPTH = 2;
+
+    private static final DynamicRegistryManager REGISTRIES = bootstrap();
+
+    private final BlockView terrain = new Terrain();
+    private final ChunkManager chunkManager = new Chunks();
+
+    public BenchmarkWorld() {
+        super(null, World.OVERWORLD, REGISTRIES.getDimensionTypes().get(DimensionType.OVERWORLD_REGISTRY_KEY),
+                () -> DummyProfiler.INSTANCE, false, false, 0);
+    }
+
+    private static DynamicRegistryManager bootstrap() {
+        Bootstrap.initialize();
+        return DynamicRegistryManager.create();
+    }
+
+    @Override
+    public BlockState getBlockState(BlockPos pos) {
+        return terrain.getBlockState(pos);
+    }
+
+    @Override
+    public FluidState getFluidState(BlockPos pos) {
+        return terrain.getFluidState(pos);
+    }
+
+    @Nullable
+    @Override
+    public BlockEntity getBlockEntity(BlockPos pos) {
+        return null;
+    }
+
+    @Override
+    public ChunkManager getChunkManager() {
+        return this.chunkManager;
+    }
+
+    @Override
+    public List<? extends PlayerEntity> getPlayers() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public DynamicRegistryManager getRegistryManager() {
+        return REGISTRIES;
+    }
+
+    @Override
+    public void updateListeners(BlockPos pos, BlockState oldState, BlockState newState, int flags) {
+    }
+
+    @Override
+    public void playSound(@Nullable PlayerEntity player, double x, double y, double z, SoundEvent sound, SoundCategory category, float volume, float pitch) {
+    }
+
+    @Override
+    public void playSoundFromEntity(@Nullable PlayerEntity player, Entity entity, SoundEvent sound, SoundCategory category, float volume, float pitch) {
+    }
+
+    @Override
+    public void syncWorldEvent(@Nullable PlayerEntity player, int eventId, BlockPos pos, int data) {
+    }
+
+    @Override
+    public void setBlockBreakingInfo(int entityId, BlockPos pos, int progress) {
+    }
+
+    @Nullable
+    @Override
+    public Entity getEntityById(int id) {
+        return null;
+    }
+
+    @Nullable
+    @Override
+    public MapState getMapState(String id) {
+        return null;
+    }
+
+    @Override
+    public void putMapState(MapState mapState) {
+    }
+
+    @Override
+    public int getNextMapId() {
+        return 0;
+    }
+
+    @Override
+    public Scoreboard getScoreboard() {
+        return null;
+    }
+
+    @Override
+    public RecipeManager getRecipeManager() {
+        return null;
+    }
+
+    @Override
+    public TagManager getTagManager() {
+        return null;
+    }
+
+    @Override
+    public TickScheduler<Block> getBlockTickScheduler() {
+        return null;
+    }
+
+    @Override
+    public TickScheduler<Fluid> getFluidTickScheduler() {
+        return null;
+    }
+
+    @Override
+    public float getBrightness(Direction direction, boolean shaded) {
+        return 1.0f;
+    }
+
+    @Override
+    public Biome getGeneratorStoredBiome(int biomeX, int biomeY, int biomeZ) {
+        return null;
+    }
+
+    /**
+     * Every chunk is the same {@link Terrain}, so there are never any
+     * {@link Chunk} objects to hand out.
+     */
+    private class Chunks extends ChunkManager {
+        @Override
+        public BlockView getChunk(int chunkX, int chunkZ) {
+            return terrain;
+        }
+
+        @Nullable
+        @Override
+        public Chunk getChunk(int x, int z, ChunkStatus leastStatus, boolean create) {
+            return null;
+        }
+
+        @Override
+        public String getDebugString() {
+            return "Benchmark";
+        }
+
+        @Override
+        public LightingProvider getLightingProvider() {
+            return null;
+        }
+
+        @Override
+        public BlockView getWorld() {
+            return BenchmarkWorld.this;
+        }
+    }
+
+    private static class Terrain implements BlockView {
+        @Nullable
+        @Override
+        public BlockEntity getBlockEntity(BlockPos pos) {
+            return null;
+        }
+
+        @Override
+        public BlockState getBlockState(BlockPos pos) {
+            return pos.getY() < FLOOR ? Blocks.STONE.getDefaultState() : Blocks.AIR.getDefaultState();
+        }
+
+        @Override
+        public FluidState getFluidState(BlockPos pos) {
+            if (pos.getX() < 0 && pos.getY() >= FLOOR && pos.getY() < FLOOR + WATER_DEPTH) {
+                return Fluids.WATER.getDefaultState();
+            }
+
+            return Fluids.EMPTY.getDefaultState();
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package dev.lazurite.rayon.core.benchmark;
+
+import com.jme3.bullet.PhysicsSpace;
+import com.jme3.bullet.collision.shapes.BoxCollisionShape;
+import com.jme3.bullet.collision.shapes.CollisionShape;
+import com.jme3.math.Vector3f;
+import dev.lazurite.rayon.core.impl.physics.PhysicsThread;
+import dev.lazurite.rayon.core.impl.physics.space.MinecraftSpace;
+import dev.lazurite.rayon.core.impl.physics.space.body.BlockRigidBody;
+import dev.lazurite.rayon.core.impl.physics.space.body.ElementRigidBody;
+import dev.lazurite.rayon.core.impl.physics.util.thread.TimestepManager;
+import dev.lazurite.rayon.core.impl.util.config.Config;
+import net.minecraft.util.math.BlockPos;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares each broadphase on a terrain-heavy scene: a floor made of single block bodies, like
+ * the ones {@link MinecraftSpace}'s terrain manager loads, with a pile of bodies falling onto it.
+ * The scene is built in an actual {@link MinecraftSpace}, so the axis sweeps use the same bounds
+ * as they do in game. The world border of the {@link BenchmarkWorld} is shrunk to fit within
+ * {@link Config#getBroadphaseExtent()} first, since otherwise the space would fall back to DBVT.
+ * That fallback is only checked when the space is created.<br>
+ * A settled pile is mostly asleep, which leaves the broadphase with little to do. When {@code awake}
+ * is set, the bodies are never allowed to sleep, so their bounds are updated every step.
+ * <ul>
+ *     <li><b>step:</b> One native update of the whole scene.</li>
+ *     <li><b>terrainChurn:</b> Removing and adding back a patch of the floor, as happens when bodies move between areas.</li>
+ * </ul>
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class BroadphaseBenchmark {
+    private static final int FLOOR = 64;
+    private static final int CHURN = 16;
+    private static final int BODIES = 256;
+
+    @Param({"DBVT", "AXIS_SWEEP_3", "AXIS_SWEEP_3_32"})
+    public PhysicsSpace.BroadphaseType broadphase;
+
+    @Param({"false", "true"})
+    public boolean awake;
+
+    private final BlockRigidBody[] floor = new BlockRigidBody[FLOOR * FLOOR];
+    private PhysicsThread thread;
+    private MinecraftSpace space;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Natives.load();
+        BenchmarkWorld world = new BenchmarkWorld();
+        world.getWorldBorder().setSize(Config.getBroadphaseExtent());
+
+        thread = new PhysicsThread(Runnable::run, Thread.currentThread(), null, "Benchmark Physics Thread");
+        space = new MinecraftSpace(thread, world, broadphase);
+
+        if (space.getBroadphaseType() != broadphase) {
+            throw new IllegalStateException("The space fell back to " + space.getBroadphaseType() + " instead of " + broadphase);
+        }
+
+        CollisionShape block = new BoxCollisionShape(0.5f);
+
+        for (int x = 0; x < FLOOR; x++) {
+            for (int z = 0; z < FLOOR; z++) {
+                BlockRigidBody body = new BlockRigidBody(null, new BlockPos(x - FLOOR / 2, BenchmarkWorld.FLOOR - 1, z - FLOOR / 2), block, 1.0f, 0.5f);
+                space.addCollisionObject(body);
+                floor[x * FLOOR + z] = body;
+            }
+        }
+
+        for (int i = 0; i < BODIES; i++) {
+            ElementRigidBody body = new ElementRigidBody(null, space, new BoxCollisionShape(0.5f));
+            body.setPhysicsLocation(new Vector3f((i % 16) * 2 - 16, BenchmarkWorld.FLOOR + 2 + i / 16, (i / 16) * 2 - 16));
+
+            if (awake) {
+                body.setSleepingThresholds(0.0f, 0.0f);
+            }
+
+            space.addCollisionObject(body);
+        }
+
+        /* Let the pile settle onto the floor */
+        for (int i = 0; i < 40; i++) {
+            space.update(TimestepManager.STEP, 1);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        thread.destroy();
+    }
+
+    @Benchmark
+    public void step() {
+        space.update(TimestepManager.STEP, 1);
+    }
+
+    @Benchmark
+    public void terrainChurn() {
+        for (int x = 0; x < CHURN; x++) {
+            for (int z = 0; z < CHURN; z++) {
+                space.removeCollisionObject(floor[x * FLOOR + z]);
+            }
+        }
+
+        for (int x = 0; x < CHURN; x++) {
+            for (int z = 0; z < CHURN; z++) {
+                space.addCollisionObject(floor[x * FLOOR + z]);
+            }
+        }
+    }
+}
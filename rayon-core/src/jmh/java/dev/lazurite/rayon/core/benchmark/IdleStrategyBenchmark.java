@@ -0,0 +1,104 @@
+package dev.lazurite.rayon.core.benchmark;
+
+import dev.lazurite.rayon.core.impl.physics.PhysicsThread;
+import dev.lazurite.rayon.core.impl.physics.util.thread.IdleStrategy;
+import dev.lazurite.rayon.core.impl.util.config.Config;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures what each {@link IdleStrategy} costs while there is nothing to do, and how long it takes
+ * a queued task to start running once a {@link PhysicsThread} has gone idle. The strategy is picked
+ * using {@link Config#set}, the same way <code>thread.idleStrategy</code> is read in game.
+ * <ul>
+ *     <li><b>idleCpu:</b> The {@code idleCpuMicros} counter is the CPU time the physics thread burns per second of wall time.</li>
+ *     <li><b>wakeLatency:</b> The time from queueing a task until it has run, after the thread has been idle for a millisecond.</li>
+ * </ul>
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 2)
+public class IdleStrategyBenchmark {
+    @State(Scope.Benchmark)
+    public static class Worker {
+        @Param({"PARK", "SPIN_THEN_PARK", "YIELD", "SPIN"})
+        public IdleStrategy strategy;
+
+        private volatile boolean done;
+        private PhysicsThread thread;
+
+        @Setup(Level.Trial)
+        public void start() {
+            Config.set("thread.idleStrategy", strategy);
+            thread = new PhysicsThread(Runnable::run, Thread.currentThread(), null, "Benchmark Physics Thread");
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() {
+            thread.destroy();
+        }
+    }
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class CpuCounters {
+        private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+        public long idleCpuMicros;
+
+        @Setup(Level.Iteration)
+        public void clear() {
+            idleCpuMicros = 0;
+        }
+
+        private long cpuTime(Thread thread) {
+            return THREADS.getThreadCpuTime(thread.getId());
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Gap {
+        /* Gives the worker time to go idle (and park, if it parks) before each task */
+        @Setup(Level.Invocation)
+        public void pause() throws InterruptedException {
+            Thread.sleep(1);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public void idleCpu(Worker worker, CpuCounters counters) throws InterruptedException {
+        long before = counters.cpuTime(worker.thread);
+        Thread.sleep(10);
+        counters.idleCpuMicros += (counters.cpuTime(worker.thread) - before) / 1000;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void wakeLatency(Worker worker, Gap gap) {
+        worker.done = false;
+        worker.thread.execute(() -> worker.done = true);
+
+        while (!worker.done) {
+            /* Wait for the worker to run the task */
+        }
+    }
+}
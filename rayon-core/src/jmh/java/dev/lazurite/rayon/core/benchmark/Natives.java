@@ -0,0 +1,25 @@
+package dev.lazurite.rayon.core.benchmark;
+
+import com.jme3.system.NativeLibraryLoader;
+import dev.lazurite.rayon.core.impl.physics.util.NativeLoader;
+
+import java.io.File;
+
+/**
+ * Loads the Bullet natives straight out of the source tree, since {@link NativeLoader}
+ * needs a running game. The jmh task passes the directory in using the
+ * {@code rayon.natives} system property.
+ */
+public final class Natives {
+    private static boolean loaded;
+
+    private Natives() {
+    }
+
+    public static synchronized void load() {
+        if (!loaded) {
+            NativeLibraryLoader.loadLibbulletjme(true, new File(System.getProperty("rayon.natives")), "Release", "Sp");
+            loaded = true;
+        }
+    }
+}
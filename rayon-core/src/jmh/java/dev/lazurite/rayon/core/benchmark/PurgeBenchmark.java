@@ -0,0 +1,98 @@
+package dev.lazurite.rayon.core.benchmark;
+
+import com.google.common.collect.Lists;
+import com.jme3.bullet.collision.shapes.BoxCollisionShape;
+import com.jme3.bullet.collision.shapes.CollisionShape;
+import dev.lazurite.rayon.core.impl.physics.PhysicsThread;
+import dev.lazurite.rayon.core.impl.physics.space.MinecraftSpace;
+import dev.lazurite.rayon.core.impl.physics.space.body.BlockRigidBody;
+import dev.lazurite.rayon.core.impl.physics.space.body.ElementRigidBody;
+import dev.lazurite.rayon.core.impl.physics.space.environment.TerrainManager;
+import dev.lazurite.rayon.core.impl.physics.space.util.Clump;
+import net.minecraft.block.Blocks;
+import net.minecraft.util.math.BlockPos;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link TerrainManager#purge()} on a {@link MinecraftSpace} with 10,000 loaded blocks. Before
+ * each purge, the blocks which are still needed are marked using {@link TerrainManager#keep}, the same
+ * way a throttled body keeps its blocks during a step. The rest are swept, including their removal from
+ * the native space. The swept blocks are added back between invocations, which isn't measured.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class PurgeBenchmark {
+    private static final int BLOCKS = 10000;
+
+    /* The fraction of blocks still needed after loading */
+    @Param({"0.5", "0.9"})
+    public float kept;
+
+    private final BlockRigidBody[] blocks = new BlockRigidBody[BLOCKS];
+    private PhysicsThread thread;
+    private MinecraftSpace space;
+    private ElementRigidBody keeper;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Natives.load();
+        thread = new PhysicsThread(Runnable::run, Thread.currentThread(), null, "Benchmark Physics Thread");
+        space = new MinecraftSpace(thread, new BenchmarkWorld());
+
+        CollisionShape shape = new BoxCollisionShape(0.5f);
+        List<BlockRigidBody> toKeep = Lists.newArrayList();
+
+        for (int i = 0; i < BLOCKS; i++) {
+            blocks[i] = new BlockRigidBody(Blocks.STONE.getDefaultState(), new BlockPos(i % 100, BenchmarkWorld.FLOOR - 1, i / 100), shape, 1.0f, 0.5f);
+
+            if (i < BLOCKS * kept) {
+                toKeep.add(blocks[i]);
+            }
+        }
+
+        Clump clump = new Clump();
+        clump.setBodies(toKeep);
+        keeper = new ElementRigidBody(null, space, shape);
+        keeper.setClump(clump);
+    }
+
+    @Setup(Level.Invocation)
+    public void load() {
+        for (BlockRigidBody block : blocks) {
+            if (!block.isInWorld()) {
+                space.addCollisionObject(block);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        thread.destroy();
+    }
+
+    @Benchmark
+    public void purge() {
+        TerrainManager terrainManager = space.getTerrainManager();
+        terrainManager.keep(keeper);
+        terrainManager.purge();
+    }
+}
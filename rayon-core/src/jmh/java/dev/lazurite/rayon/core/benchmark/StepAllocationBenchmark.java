@@ -0,0 +1,96 @@
+package dev.lazurite.rayon.core.benchmark;
+
+import com.google.common.collect.Lists;
+import com.jme3.math.Vector3f;
+import dev.lazurite.rayon.core.impl.physics.PhysicsThread;
+import dev.lazurite.rayon.core.impl.physics.space.MinecraftSpace;
+import dev.lazurite.rayon.core.impl.physics.util.thread.TaskPriority;
+import dev.lazurite.rayon.core.impl.util.config.Config;
+import dev.lazurite.rayon.core.impl.util.supplier.entity.EntitySnapshot;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.vehicle.BoatEntity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a whole tick of {@link MinecraftSpace#step} for a layer of bodies resting on the floor of a
+ * {@link BenchmarkWorld}, half of them in water. Every tick captures a new {@link EntitySnapshot} with a
+ * boat inside every eighth body, so entity pushing, fluid drag and terrain loading all run the same way
+ * they do in game. Run it with the GC profiler ({@code -prof gc}) and check {@code gc.alloc.rate.norm},
+ * which is reported per body and includes what the physics thread allocates.<br>
+ * Time accumulation is turned off so that each tick takes exactly one step. The first few ticks are
+ * presim ticks, which the warmup iterations take care of.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class StepAllocationBenchmark {
+    private static final int BODIES = 256;
+    private static final int BOAT_INTERVAL = 8;
+
+    private final List<Entity> entities = Lists.newArrayList();
+    private final Runnable stepDone = () -> this.stepped = true;
+    private volatile boolean stepped;
+    private PhysicsThread thread;
+    private MinecraftSpace space;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Natives.load();
+        Config.set("timestep.accumulate", false);
+
+        BenchmarkWorld world = new BenchmarkWorld();
+        thread = new PhysicsThread(Runnable::run, Thread.currentThread(), null, "Benchmark Physics Thread");
+        space = new MinecraftSpace(thread, world);
+
+        for (int i = 0; i < BODIES; i++) {
+            float x = (i % 16) * 2 - 16 + 0.5f;
+            float z = (i / 16) * 2 - 16 + 0.5f;
+
+            BenchmarkElement element = new BenchmarkElement(space);
+            element.getRigidBody().setPhysicsLocation(new Vector3f(x, BenchmarkWorld.FLOOR + 0.5f, z));
+            space.load(element);
+
+            if (i % BOAT_INTERVAL == 0) {
+                entities.add(new BoatEntity(world, x, BenchmarkWorld.FLOOR, z));
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        thread.destroy();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BODIES)
+    public void step() {
+        space.captureEntities(entities);
+        space.step(() -> true);
+
+        /* Queued behind the step, so it runs once the step is done */
+        stepped = false;
+        thread.execute(TaskPriority.STEP, stepDone);
+
+        while (!stepped) {
+            /* Wait for the physics thread */
+        }
+    }
+}
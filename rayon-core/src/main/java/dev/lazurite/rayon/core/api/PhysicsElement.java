@@ -20,6 +20,8 @@ public interface PhysicsElement {
      * This method is for doing things such as applying forces or interacting with
      * the {@link MinecraftSpace} in some way. If you need to perform some other
      * operation that doesn't have to do with physics {@link Entity#tick()} will suffice.
+     * This isn't called while the {@link ElementRigidBody} is asleep, so call
+     * {@link ElementRigidBody#activate()} from elsewhere if you need it to keep running.
      * @param space the {@link MinecraftSpace} that the {@link ElementRigidBody} is in
      */
     void step(MinecraftSpace space);
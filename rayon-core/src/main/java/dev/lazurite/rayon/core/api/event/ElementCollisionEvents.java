@@ -5,40 +5,198 @@ import dev.lazurite.rayon.core.impl.physics.space.MinecraftSpace;
 import dev.lazurite.rayon.core.impl.physics.space.body.BlockRigidBody;
 import net.fabricmc.fabric.api.event.Event;
 import net.fabricmc.fabric.api.event.EventFactory;
+import net.minecraft.block.BlockState;
+import net.minecraft.util.math.BlockPos;
 
 import java.util.concurrent.Executor;
 
 /**
  * The events available through this class are:
  * <ul>
- *     <li><b>Block Collision:</b> Element on Block</li>
- *     <li><b>Element Collision:</b> Element on Element</li>
+ *     <li><b>Block Collision:</b> Element on Block, once per contact point</li>
+ *     <li><b>Resolved Block Collision:</b> Same as Block Collision, along with the block that was hit</li>
+ *     <li><b>Element Collision:</b> Element on Element, once per contact point</li>
+ *     <li><b>Block Impact:</b> Element on Block, once per pair each step</li>
+ *     <li><b>Element Impact:</b> Element on Element, once per pair each step</li>
  * </ul>
+ * The impact events are usually what you want since the collision events fire for every contact point on every
+ * substep. Collisions aren't listened for at all while none of the events have any listeners.<br>
+ * The resolved block collision and block impact events also pass along the position and state of the block that
+ * was hit. Use those instead of asking the {@link BlockRigidBody}, since a merged body covers more than one block.<br>
  * <b>Note:</b> All the events listed here run on the physics thread but include an {@link Executor} object to allow for thread changing.
  * @see MinecraftSpace#collision
  */
 public class ElementCollisionEvents {
-    public static final Event<BlockCollision> BLOCK_COLLISION = EventFactory.createArrayBacked(BlockCollision.class, (callbacks) -> (executor, element, block, impulse) -> {
-        for (BlockCollision event : callbacks) {
-            event.onCollide(executor, element, block, impulse);
-        }
+    private static volatile int listeners;
+    private static volatile int blockCollisionListeners;
+    private static volatile int resolvedBlockCollisionListeners;
+    private static volatile int elementCollisionListeners;
+    private static volatile int blockImpactListeners;
+    private static volatile int elementImpactListeners;
+
+    public static final Event<BlockCollision> BLOCK_COLLISION = EventFactory.createArrayBacked(BlockCollision.class, (callbacks) -> {
+        blockCollisionListeners = callbacks.length;
+        updateListeners();
+
+        return (executor, element, block, impulse) -> {
+            for (BlockCollision event : callbacks) {
+                event.onCollide(executor, element, block, impulse);
+            }
+        };
     });
 
-    public static final Event<ElementCollision> ELEMENT_COLLISION = EventFactory.createArrayBacked(ElementCollision.class, (callbacks) -> (executor, element1, element2, impulse) -> {
-        for (ElementCollision event : callbacks) {
-            event.onCollide(executor, element1, element2, impulse);
-        }
+    public static final Event<ResolvedBlockCollision> RESOLVED_BLOCK_COLLISION = EventFactory.createArrayBacked(ResolvedBlockCollision.class, (callbacks) -> {
+        resolvedBlockCollisionListeners = callbacks.length;
+        updateListeners();
+
+        return (executor, element, block, blockPos, blockState, impulse) -> {
+            for (ResolvedBlockCollision event : callbacks) {
+                event.onCollide(executor, element, block, blockPos, blockState, impulse);
+            }
+        };
+    });
+
+    public static final Event<ElementCollision> ELEMENT_COLLISION = EventFactory.createArrayBacked(ElementCollision.class, (callbacks) -> {
+        elementCollisionListeners = callbacks.length;
+        updateListeners();
+
+        return (executor, element1, element2, impulse) -> {
+            for (ElementCollision event : callbacks) {
+                event.onCollide(executor, element1, element2, impulse);
+            }
+        };
+    });
+
+    public static final Event<BlockImpact> BLOCK_IMPACT = EventFactory.createArrayBacked(BlockImpact.class, (callbacks) -> {
+        blockImpactListeners = callbacks.length;
+        updateListeners();
+
+        return (executor, element, block, blockPos, blockState, impulse, peakImpulse) -> {
+            for (BlockImpact event : callbacks) {
+                event.onImpact(executor, element, block, blockPos, blockState, impulse, peakImpulse);
+            }
+        };
+    });
+
+    public static final Event<ElementImpact> ELEMENT_IMPACT = EventFactory.createArrayBacked(ElementImpact.class, (callbacks) -> {
+        elementImpactListeners = callbacks.length;
+        updateListeners();
+
+        return (executor, element1, element2, impulse, peakImpulse) -> {
+            for (ElementImpact event : callbacks) {
+                event.onImpact(executor, element1, element2, impulse, peakImpulse);
+            }
+        };
     });
 
     private ElementCollisionEvents() { }
 
+    private static synchronized void updateListeners() {
+        listeners = blockCollisionListeners + resolvedBlockCollisionListeners + elementCollisionListeners + blockImpactListeners + elementImpactListeners;
+    }
+
+    /**
+     * @return whether or not any of the per contact point events have listeners
+     */
+    public static boolean hasCollisionListeners() {
+        return blockCollisionListeners > 0 || resolvedBlockCollisionListeners > 0 || elementCollisionListeners > 0;
+    }
+
+    /**
+     * @return whether or not {@link ElementCollisionEvents#RESOLVED_BLOCK_COLLISION} has listeners
+     */
+    public static boolean hasResolvedBlockCollisionListeners() {
+        return resolvedBlockCollisionListeners > 0;
+    }
+
+    /**
+     * @return whether or not any of the per pair events have listeners
+     */
+    public static boolean hasImpactListeners() {
+        return blockImpactListeners > 0 || elementImpactListeners > 0;
+    }
+
+    /**
+     * @return whether or not any of the events have listeners
+     */
+    public static boolean hasListeners() {
+        return listeners > 0;
+    }
+
     @FunctionalInterface
     public interface BlockCollision {
         void onCollide(Executor executor, PhysicsElement element, BlockRigidBody block, float impulse);
     }
 
+    @FunctionalInterface
+    public interface ResolvedBlockCollision {
+        /**
+         * @param executor the game's executor
+         * @param element the element
+         * @param block the body the element touched
+         * @param blockPos the position of the block within the body that was hit
+         * @param blockState the state of that block
+         * @param impulse the impulse of the contact point
+         */
+        void onCollide(Executor executor, PhysicsElement element, BlockRigidBody block, BlockPos blockPos, BlockState blockState, float impulse);
+    }
+
     @FunctionalInterface
     public interface ElementCollision {
         void onCollide(Executor executor, PhysicsElement element1, PhysicsElement element2, float impulse);
     }
+
+    @FunctionalInterface
+    public interface BlockImpact {
+        /**
+         * @param executor the game's executor
+         * @param element the element
+         * @param block the body the element touched
+         * @param blockPos the position of the block within the body that took the strongest contact
+         * @param blockState the state of that block
+         * @param impulse the sum of the impulses of every contact point between the two during the step
+         * @param peakImpulse the largest impulse of any single contact point during the step
+         */
+        void onImpact(Executor executor, PhysicsElement element, BlockRigidBody block, BlockPos blockPos, BlockState blockState, float impulse, float peakImpulse);
+
+        /**
+         * Wraps the given listener so that it's only called for impacts with at least the given impulse.
+         * @param minImpulse the smallest summed impulse to pass through
+         * @param listener the listener to wrap
+         * @return the filtered listener
+         */
+        static BlockImpact atLeast(float minImpulse, BlockImpact listener) {
+            return (executor, element, block, blockPos, blockState, impulse, peakImpulse) -> {
+                if (impulse >= minImpulse) {
+                    listener.onImpact(executor, element, block, blockPos, blockState, impulse, peakImpulse);
+                }
+            };
+        }
+    }
+
+    @FunctionalInterface
+    public interface ElementImpact {
+        /**
+         * @param executor the game's executor
+         * @param element1 the first element
+         * @param element2 the second element
+         * @param impulse the sum of the impulses of every contact point between the two during the step
+         * @param peakImpulse the largest impulse of any single contact point during the step
+         */
+        void onImpact(Executor executor, PhysicsElement element1, PhysicsElement element2, float impulse, float peakImpulse);
+
+        /**
+         * Wraps the given listener so that it's only called for impacts with at least the given impulse.
+         * @param minImpulse the smallest summed impulse to pass through
+         * @param listener the listener to wrap
+         * @return the filtered listener
+         */
+        static ElementImpact atLeast(float minImpulse, ElementImpact listener) {
+            return (executor, element1, element2, impulse, peakImpulse) -> {
+                if (impulse >= minImpulse) {
+                    listener.onImpact(executor, element1, element2, impulse, peakImpulse);
+                }
+            };
+        }
+    }
 }
@@ -0,0 +1,103 @@
+package dev.lazurite.rayon.core.api.event;
+
+import dev.lazurite.rayon.core.api.PhysicsElement;
+import dev.lazurite.rayon.core.impl.physics.space.MinecraftSpace;
+import dev.lazurite.rayon.core.impl.physics.space.body.BlockRigidBody;
+import net.fabricmc.fabric.api.event.Event;
+import net.fabricmc.fabric.api.event.EventFactory;
+import net.minecraft.block.BlockState;
+import net.minecraft.util.math.BlockPos;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Contact lifecycle events, worked out by comparing the pairs of bodies touching during
+ * one step with the pairs touching during the step before. The events available through
+ * this class are:
+ * <ul>
+ *     <li><b>Begin:</b> The pair wasn't touching during the previous step but is now</li>
+ *     <li><b>Persist:</b> The pair was touching during the previous step and still is</li>
+ *     <li><b>End:</b> The pair was touching during the previous step but isn't anymore</li>
+ * </ul>
+ * each for both Element on Block and Element on Element. A pair that falls asleep while
+ * touching keeps touching until one of them wakes up and moves away. The block events also pass along
+ * the position and state of the block within the {@link BlockRigidBody} that took the strongest contact.<br>
+ * <b>Note:</b> All the events listed here run on the physics thread but include an {@link Executor} object to allow for thread changing.
+ * @see ElementCollisionEvents
+ * @see MinecraftSpace#collision
+ */
+public final class ElementContactEvents {
+    private static volatile int listeners;
+    private static volatile int persistListeners;
+
+    public static final Event<BlockContact> BLOCK_CONTACT_BEGIN = createBlockContact(false);
+    public static final Event<BlockContact> BLOCK_CONTACT_PERSIST = createBlockContact(true);
+    public static final Event<BlockContact> BLOCK_CONTACT_END = createBlockContact(false);
+    public static final Event<ElementContact> ELEMENT_CONTACT_BEGIN = createElementContact(false);
+    public static final Event<ElementContact> ELEMENT_CONTACT_PERSIST = createElementContact(true);
+    public static final Event<ElementContact> ELEMENT_CONTACT_END = createElementContact(false);
+
+    private ElementContactEvents() { }
+
+    /**
+     * @return whether or not any of the events have listeners
+     */
+    public static boolean hasListeners() {
+        return listeners > 0;
+    }
+
+    /**
+     * @return whether or not either of the persist events have listeners
+     */
+    public static boolean hasPersistListeners() {
+        return persistListeners > 0;
+    }
+
+    private static Event<BlockContact> createBlockContact(boolean persist) {
+        int[] count = new int[1];
+
+        return EventFactory.createArrayBacked(BlockContact.class, (callbacks) -> {
+            updateListeners(callbacks.length - count[0], persist);
+            count[0] = callbacks.length;
+
+            return (executor, element, block, blockPos, blockState) -> {
+                for (BlockContact event : callbacks) {
+                    event.onContact(executor, element, block, blockPos, blockState);
+                }
+            };
+        });
+    }
+
+    private static Event<ElementContact> createElementContact(boolean persist) {
+        int[] count = new int[1];
+
+        return EventFactory.createArrayBacked(ElementContact.class, (callbacks) -> {
+            updateListeners(callbacks.length - count[0], persist);
+            count[0] = callbacks.length;
+
+            return (executor, element1, element2) -> {
+                for (ElementContact event : callbacks) {
+                    event.onContact(executor, element1, element2);
+                }
+            };
+        });
+    }
+
+    private static synchronized void updateListeners(int added, boolean persist) {
+        listeners += added;
+
+        if (persist) {
+            persistListeners += added;
+        }
+    }
+
+    @FunctionalInterface
+    public interface BlockContact {
+        void onContact(Executor executor, PhysicsElement element, BlockRigidBody block, BlockPos blockPos, BlockState blockState);
+    }
+
+    @FunctionalInterface
+    public interface ElementContact {
+        void onContact(Executor executor, PhysicsElement element1, PhysicsElement element2);
+    }
+}
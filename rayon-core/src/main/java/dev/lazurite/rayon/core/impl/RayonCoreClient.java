@@ -1,8 +1,8 @@
 package dev.lazurite.rayon.core.impl;
 
-import dev.lazurite.rayon.core.api.event.PhysicsSpaceEvents;
 import dev.lazurite.rayon.core.impl.physics.space.MinecraftSpace;
 import dev.lazurite.rayon.core.impl.physics.PhysicsThread;
+import dev.lazurite.rayon.core.impl.util.config.Config;
 import dev.lazurite.rayon.core.impl.util.supplier.world.ClientWorldSupplier;
 import dev.lazurite.rayon.core.impl.util.supplier.world.WorldSupplier;
 import dev.lazurite.rayon.core.impl.physics.util.thread.ThreadStorage;
@@ -32,7 +32,14 @@ public class RayonCoreClient implements ClientModInitializer {
             WorldSupplier supplier = RayonCoreCommon.isImmersivePortalsPresent() ?
                     new ImmersiveWorldSupplier(client) : new ClientWorldSupplier(client);
 
-            thread.set(new PhysicsThread(client, Thread.currentThread(), supplier, "Client Physics Thread"));
+            /* Share the integrated server's thread in singleplayer */
+            PhysicsThread host = null;
+
+            if (Config.isSharedSingleplayerThreadEnabled() && client.getServer() != null) {
+                host = PhysicsThread.get(client.getServer());
+            }
+
+            thread.set(new PhysicsThread(client, Thread.currentThread(), supplier, "Client Physics Thread", host));
             ((ThreadStorage) client).setPhysicsThread(thread.get());
         });
 
@@ -43,14 +50,25 @@ public class RayonCoreClient implements ClientModInitializer {
         });
 
         ClientTickEvents.START_WORLD_TICK.register(world -> {
-            MinecraftSpace space = MinecraftSpace.get(world);
-            space.step(space::canStep);
+            MinecraftSpace space = MinecraftSpace.getIfPresent(world);
+
+            if (space != null) {
+                if (space.isIdle()) {
+                    MinecraftSpace.release(world);
+                } else {
+                    space.captureEntities(world.getEntities());
+                    space.step(space::canStep);
+                }
+            }
         });
 
         BetterClientLifecycleEvents.LOAD_WORLD.register((client, world) -> {
-            PhysicsSpaceEvents.PREINIT.invoker().onPreInit(thread.get(), world);
-            ((SpaceStorage) world).putSpace(MinecraftSpace.MAIN, new MinecraftSpace(thread.get(), world));
-            PhysicsSpaceEvents.INIT.invoker().onInit(thread.get(), MinecraftSpace.get(world));
+            ((SpaceStorage) world).setPhysicsThread(thread.get());
+
+            /* Otherwise, the space is created once something needs it */
+            if (!Config.isLazySpaceCreationEnabled()) {
+                MinecraftSpace.get(world);
+            }
         });
     }
 }
@@ -1,15 +1,17 @@
 package dev.lazurite.rayon.core.impl;
 
 import com.google.common.collect.Maps;
-import dev.lazurite.rayon.core.api.event.PhysicsSpaceEvents;
 import dev.lazurite.rayon.core.impl.physics.space.MinecraftSpace;
-import dev.lazurite.rayon.core.impl.physics.PhysicsThread;
+import dev.lazurite.rayon.core.impl.physics.PhysicsThreadPool;
 import dev.lazurite.rayon.core.impl.physics.space.util.BlockProperties;
 import dev.lazurite.rayon.core.impl.util.supplier.world.ServerWorldSupplier;
 import dev.lazurite.rayon.core.impl.physics.util.thread.ThreadStorage;
 import dev.lazurite.rayon.core.impl.physics.util.NativeLoader;
 import dev.lazurite.rayon.core.impl.physics.space.util.SpaceStorage;
+import dev.lazurite.rayon.core.impl.util.command.RayonCommand;
+import dev.lazurite.rayon.core.impl.util.config.Config;
 import net.fabricmc.api.ModInitializer;
+import net.fabricmc.fabric.api.command.v1.CommandRegistrationCallback;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerWorldEvents;
@@ -24,7 +26,7 @@ import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * The common entrypoint for Rayon Core. Handles the server thread lifecycle,
- * {@link MinecraftSpace} creation, and bullet native loading
+ * {@link MinecraftSpace} creation, commands, config and bullet native loading
  * @see RayonCoreClient
  * @see NativeLoader
  */
@@ -36,31 +38,50 @@ public class RayonCoreCommon implements ModInitializer {
 	@Override
 	public void onInitialize() {
 		NativeLoader.load();
+		Config.load();
 		loadBlockProps();
 
-		AtomicReference<PhysicsThread> thread = new AtomicReference<>();
-		ServerLifecycleEvents.SERVER_STOPPING.register(server -> thread.get().destroy());
+		CommandRegistrationCallback.EVENT.register((dispatcher, dedicated) -> RayonCommand.register(dispatcher));
+
+		AtomicReference<PhysicsThreadPool> pool = new AtomicReference<>();
+		ServerLifecycleEvents.SERVER_STOPPING.register(server -> pool.get().destroy());
 
 		ServerLifecycleEvents.SERVER_STARTING.register(server -> {
-			thread.set(new PhysicsThread(server, Thread.currentThread(), new ServerWorldSupplier(server), "Server Physics Thread"));
-			((ThreadStorage) server).setPhysicsThread(thread.get());
+			pool.set(new PhysicsThreadPool(server, Thread.currentThread(), new ServerWorldSupplier(server), "Server Physics Thread", Config.getWorkerCount()));
+			((ThreadStorage) server).setPhysicsThread(pool.get().getMain());
 		});
 
 		ServerTickEvents.END_SERVER_TICK.register(server -> {
-			if (thread.get().throwable != null) {
-				throw new RuntimeException(thread.get().throwable);
+			if (pool.get().getThrowable() != null) {
+				throw new RuntimeException(pool.get().getThrowable());
 			}
 		});
 
 		ServerTickEvents.START_WORLD_TICK.register(world -> {
-			MinecraftSpace space = MinecraftSpace.get(world);
-			space.step(space::canStep);
+			MinecraftSpace space = MinecraftSpace.getIfPresent(world);
+
+			if (space != null) {
+				if (space.isIdle()) {
+					MinecraftSpace.release(world);
+				} else {
+					space.captureEntities(world.iterateEntities());
+					space.step(space::canStep);
+				}
+			}
 		});
 
 		ServerWorldEvents.LOAD.register((server, world) -> {
-			PhysicsSpaceEvents.PREINIT.invoker().onPreInit(thread.get(), world);
-			((SpaceStorage) world).putSpace(MinecraftSpace.MAIN, new MinecraftSpace(thread.get(), world));
-			PhysicsSpaceEvents.INIT.invoker().onInit(thread.get(), MinecraftSpace.get(world));
+			((SpaceStorage) world).setPhysicsThread(pool.get().assign(world));
+
+			/* Otherwise, the space is created once something needs it */
+			if (!Config.isLazySpaceCreationEnabled()) {
+				MinecraftSpace.get(world);
+			}
+		});
+
+		ServerWorldEvents.UNLOAD.register((server, world) -> {
+			MinecraftSpace.release(world);
+			pool.get().unassign(world);
 		});
 	}
 
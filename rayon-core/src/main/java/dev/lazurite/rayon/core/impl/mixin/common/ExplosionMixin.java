@@ -45,10 +45,14 @@ public class ExplosionMixin {
     public Vec3d setVelocity(Vec3d velocity) {
         if (entity instanceof PhysicsElement) {
             ElementRigidBody rigidBody = ((PhysicsElement) entity).getRigidBody();
+            MinecraftSpace space = MinecraftSpace.getIfPresent(entity.getEntityWorld());
 
-            MinecraftSpace.get(entity.getEntityWorld()).getThread().execute(() ->
-                rigidBody.applyCentralImpulse(VectorHelper.vec3dToVector3f(velocity).multLocal(rigidBody.getMass()).multLocal(100))
-            );
+            /* Without a space, the body isn't being simulated anyway */
+            if (space != null) {
+                space.getThread().execute(() ->
+                    rigidBody.applyCentralImpulse(VectorHelper.vec3dToVector3f(velocity).multLocal(rigidBody.getMass()).multLocal(100))
+                );
+            }
         }
 
         return velocity;
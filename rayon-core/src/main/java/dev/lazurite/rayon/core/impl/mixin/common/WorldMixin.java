@@ -1,25 +1,43 @@
 package dev.lazurite.rayon.core.impl.mixin.common;
 
 import com.google.common.collect.Maps;
+import dev.lazurite.rayon.core.impl.physics.PhysicsThread;
 import dev.lazurite.rayon.core.impl.physics.space.MinecraftSpace;
 import dev.lazurite.rayon.core.impl.physics.space.util.SpaceStorage;
+import net.minecraft.block.BlockState;
 import net.minecraft.util.Identifier;
+import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.Unique;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 /**
  * Where all spaces in a world are stored. By default, there is
- * only a "main" space: {@link MinecraftSpace#MAIN}.
+ * only a "main" space: {@link MinecraftSpace#MAIN}. Also lets
+ * each space know whenever a block in the world changes.
  * @see SpaceStorage
  */
 @Mixin(World.class)
 public class WorldMixin implements SpaceStorage {
     @Unique private final Map<Identifier, MinecraftSpace> spaces = Maps.newConcurrentMap();
+    @Unique private volatile PhysicsThread thread;
+
+    @Inject(method = "setBlockState(Lnet/minecraft/util/math/BlockPos;Lnet/minecraft/block/BlockState;II)Z", at = @At("RETURN"))
+    public void setBlockState(BlockPos pos, BlockState state, int flags, int maxUpdateDepth, CallbackInfoReturnable<Boolean> info) {
+        if (info.getReturnValue()) {
+            for (MinecraftSpace space : spaces.values()) {
+                space.onBlockChanged(pos);
+            }
+        }
+    }
 
     @Override
     public void putSpace(Identifier identifier, MinecraftSpace space) {
@@ -35,4 +53,41 @@ public class WorldMixin implements SpaceStorage {
     public List<MinecraftSpace> getSpaces() {
         return new ArrayList<>(spaces.values());
     }
+
+    @Override
+    public MinecraftSpace getOrCreateSpace(Identifier identifier, Supplier<MinecraftSpace> factory) {
+        MinecraftSpace space = spaces.get(identifier);
+
+        if (space == null) {
+            synchronized (spaces) {
+                space = spaces.get(identifier);
+
+                if (space == null) {
+                    space = factory.get();
+                    spaces.put(identifier, space);
+                }
+            }
+        }
+
+        return space;
+    }
+
+    @Override
+    public List<MinecraftSpace> removeSpaces() {
+        synchronized (spaces) {
+            List<MinecraftSpace> removed = new ArrayList<>(spaces.values());
+            spaces.clear();
+            return removed;
+        }
+    }
+
+    @Override
+    public void setPhysicsThread(PhysicsThread thread) {
+        this.thread = thread;
+    }
+
+    @Override
+    public PhysicsThread getPhysicsThread() {
+        return this.thread;
+    }
 }
@@ -4,6 +4,13 @@ import dev.lazurite.rayon.core.api.PhysicsElement;
 import dev.lazurite.rayon.core.api.event.PhysicsSpaceEvents;
 import dev.lazurite.rayon.core.impl.RayonCoreCommon;
 import dev.lazurite.rayon.core.impl.physics.space.MinecraftSpace;
+import dev.lazurite.rayon.core.impl.physics.space.util.SpaceStorage;
+import dev.lazurite.rayon.core.impl.physics.util.thread.IdleStrategy;
+import dev.lazurite.rayon.core.impl.physics.util.thread.Scratch;
+import dev.lazurite.rayon.core.impl.physics.util.thread.TaskKey;
+import dev.lazurite.rayon.core.impl.physics.util.thread.TaskPriority;
+import dev.lazurite.rayon.core.impl.physics.util.thread.TaskQueue;
+import dev.lazurite.rayon.core.impl.util.config.Config;
 import dev.lazurite.rayon.core.impl.util.supplier.entity.EntitySupplier;
 import dev.lazurite.rayon.core.impl.util.supplier.world.WorldSupplier;
 import dev.lazurite.rayon.core.impl.physics.util.thread.Pausable;
@@ -12,39 +19,85 @@ import net.minecraft.server.MinecraftServer;
 import net.minecraft.util.thread.ReentrantThreadExecutor;
 import net.minecraft.world.World;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BinaryOperator;
 
 /**
  * In order to access an instance of this, all you need is a {@link World} or {@link ReentrantThreadExecutor} object.
  * Calling {@link PhysicsThread#execute} adds a runnable to the queue of tasks and is the main way to execute code on
- * this thread. You can also execute code here by using {@link PhysicsSpaceEvents} as well as {@link PhysicsElement#step}.
+ * this thread. You can also execute code here by using {@link PhysicsSpaceEvents} as well as {@link PhysicsElement#step}.<br>
+ * Tasks are run in order of their {@link TaskPriority} and may be given a deadline after which they are dropped.
+ * While there is nothing queued, the thread waits according to its {@link IdleStrategy} instead of spinning.
  * @see PhysicsSpaceEvents
  * @see PhysicsElement
  * @see MinecraftSpace
  */
 public class PhysicsThread extends Thread implements Executor, Pausable {
-    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final TaskQueue tasks = new TaskQueue();
+    private final Map<Object, Runnable> keyedTasks = new ConcurrentHashMap<>();
+    private final List<PhysicsThread> guests = new CopyOnWriteArrayList<>();
+    private final PhysicsThread host;
     private final Executor parentExecutor;
     private final Thread parentThread;
     private final WorldSupplier worldSupplier;
+    private final IdleStrategy idleStrategy;
+    private final Scratch scratch = new Scratch();
+    private final AtomicBoolean stopped = new AtomicBoolean();
     public volatile Throwable throwable;
     public volatile boolean running = true;
+    private volatile boolean stopping;
 
+    /**
+     * Gets the main {@link PhysicsThread} belonging to the given executor. When the server is
+     * running with more than one worker (see {@link PhysicsThreadPool}), prefer
+     * {@link PhysicsThread#get(World)} for anything that touches a specific world.
+     * @param executor the client or server
+     * @return the main {@link PhysicsThread}
+     */
     public static PhysicsThread get(ReentrantThreadExecutor<? extends Runnable> executor) {
         return ((ThreadStorage) executor).getPhysicsThread();
     }
 
+    /**
+     * Gets the {@link PhysicsThread} that the given world's {@link MinecraftSpace} is pinned to.
+     * @param world the world
+     * @return the world's {@link PhysicsThread}
+     */
     public static PhysicsThread get(World world) {
-        return MinecraftSpace.get(world).getThread();
+        return ((SpaceStorage) world).getPhysicsThread();
     }
 
     public PhysicsThread(Executor parentExecutor, Thread parentThread, WorldSupplier worldSupplier, String name) {
+        this(parentExecutor, parentThread, worldSupplier, name, null);
+    }
+
+    /**
+     * Creates a new {@link PhysicsThread}. If a host is given, no new thread is started. Instead,
+     * this thread's tasks are run by the host, interleaved fairly with the host's own tasks. This
+     * is used in singleplayer so that the client and the integrated server share one thread.
+     * @param parentExecutor the client or server
+     * @param parentThread the main thread of the client or server
+     * @param worldSupplier provides the worlds of the client or server
+     * @param name the name of the thread
+     * @param host the thread which should run this thread's tasks, or null to start a new thread
+     */
+    public PhysicsThread(Executor parentExecutor, Thread parentThread, WorldSupplier worldSupplier, String name, @Nullable PhysicsThread host) {
         this.parentExecutor = parentExecutor;
         this.parentThread = parentThread;
         this.worldSupplier = worldSupplier;
+        this.idleStrategy = Config.getIdleStrategy();
+        this.host = host;
 
         this.setName(name);
         this.setUncaughtExceptionHandler((thread, throwable) -> {
@@ -52,30 +105,221 @@ public class PhysicsThread extends Thread implements Executor, Pausable {
             this.throwable = throwable;
         });
 
-        RayonCoreCommon.LOGGER.info("Starting " + getName());
-        this.start();
+        if (host != null) {
+            RayonCoreCommon.LOGGER.info("Starting " + getName() + " on " + host.getName());
+            host.guests.add(this);
+        } else {
+            RayonCoreCommon.LOGGER.info("Starting " + getName());
+            this.start();
+        }
     }
 
     /**
-     * The worker loop. Waits for tasks
-     * and executes right away.
+     * The worker loop. Executes tasks as soon as they arrive
+     * and idles using the {@link IdleStrategy} otherwise.
+     * Guest threads get one task each per loop.
      */
     @Override
     public void run() {
+        int idleCount = 0;
+
         while (running) {
-            while (!tasks.isEmpty()) {
-                tasks.poll().run();
+            boolean ran = false;
+            Runnable task = tasks.poll();
+
+            if (task != null) {
+                ran = true;
+                task.run();
+            }
+
+            for (PhysicsThread guest : guests) {
+                ran |= guest.runNext();
+            }
+
+            if (ran) {
+                idleCount = 0;
+            } else {
+                idleStrategy.idle(this, idleCount++);
             }
         }
     }
 
+    /**
+     * Runs the next task of a guest thread on the host. Any exception is
+     * stored in the guest (and the guest is detached) so that the host and
+     * its side of the game keep running.
+     * @return whether or not a task was run
+     */
+    private boolean runNext() {
+        Runnable task = tasks.poll();
+
+        if (task == null) {
+            return false;
+        }
+
+        try {
+            task.run();
+        } catch (Throwable throwable) {
+            this.throwable = throwable;
+            this.destroy();
+        }
+
+        return true;
+    }
+
     /**
      * For queueing up tasks to be executed on this thread. A {@link MinecraftSpace}
-     * object is provided within the consumer.
+     * object is provided within the consumer. Wakes the thread up if it is parked.
+     * The task is queued using {@link TaskPriority#USER}.
      * @param task the task to run
      */
     public void execute(@NotNull Runnable task) {
-        tasks.add(task);
+        execute(TaskPriority.USER, task);
+    }
+
+    /**
+     * Queues a task within the given priority class.
+     * @param priority the priority class of the task
+     * @param task the task to run
+     */
+    public void execute(@NotNull TaskPriority priority, @NotNull Runnable task) {
+        tasks.add(priority, task, 0);
+        wake();
+    }
+
+    /**
+     * Queues a task which is dropped (and counted) if it hasn't started running within the given time.
+     * @param priority the priority class of the task
+     * @param task the task to run
+     * @param timeout how long the task may wait
+     * @param unit the unit of the timeout
+     */
+    public void execute(@NotNull TaskPriority priority, @NotNull Runnable task, long timeout, @NotNull TimeUnit unit) {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        tasks.add(priority, task, deadline == 0 ? 1 : deadline);
+        wake();
+    }
+
+    /**
+     * Queues a task which replaces any task with the same key that hasn't run yet. Useful
+     * for things like movement updates where only the newest one matters.
+     * @param key identifies the task (see {@link TaskKey})
+     * @param task the task to run
+     */
+    public void execute(@NotNull Object key, @NotNull Runnable task) {
+        execute(TaskPriority.USER, key, task);
+    }
+
+    /**
+     * Queues a keyed task within the given priority class.
+     * @param priority the priority class of the task
+     * @param key identifies the task (see {@link TaskKey})
+     * @param task the task to run
+     * @see PhysicsThread#execute(Object, Runnable)
+     */
+    public void execute(@NotNull TaskPriority priority, @NotNull Object key, @NotNull Runnable task) {
+        execute(priority, key, task, (pending, newer) -> newer);
+    }
+
+    /**
+     * Queues a keyed task which is combined with any task with the same key that hasn't run yet,
+     * instead of replacing it. Useful when the newer task shouldn't lose something only the pending
+     * one knows about (e.g. a movement update which also resets the frame).
+     * @param priority the priority class of the task
+     * @param key identifies the task (see {@link TaskKey})
+     * @param task the task to run
+     * @param merge combines the pending task with the newer one
+     */
+    public void execute(@NotNull TaskPriority priority, @NotNull Object key, @NotNull Runnable task, @NotNull BinaryOperator<Runnable> merge) {
+        boolean[] queued = new boolean[1];
+
+        keyedTasks.compute(key, (k, pending) -> {
+            if (pending == null) {
+                queued[0] = true;
+                return task;
+            }
+
+            return merge.apply(pending, task);
+        });
+
+        if (queued[0]) {
+            execute(priority, () -> {
+                Runnable latest = keyedTasks.remove(key);
+
+                if (latest != null) {
+                    latest.run();
+                }
+            });
+        }
+    }
+
+    /**
+     * Queues several tasks as a single entry. They are run back to back in the given order.
+     * @param tasks the tasks to run
+     */
+    public void executeAll(@NotNull Collection<Runnable> tasks) {
+        executeAll(TaskPriority.USER, tasks);
+    }
+
+    /**
+     * Queues several tasks as a single entry within the given priority class.
+     * @param priority the priority class of the tasks
+     * @param tasks the tasks to run
+     */
+    public void executeAll(@NotNull TaskPriority priority, @NotNull Collection<Runnable> tasks) {
+        List<Runnable> batch = new ArrayList<>(tasks);
+
+        if (!batch.isEmpty()) {
+            execute(priority, () -> batch.forEach(Runnable::run));
+        }
+    }
+
+    /**
+     * Unparks the thread if its {@link IdleStrategy} is able to park it.
+     */
+    protected void wake() {
+        if (host != null) {
+            host.wake();
+        } else if (idleStrategy.parks()) {
+            LockSupport.unpark(this);
+        }
+    }
+
+    /**
+     * @return whether or not the calling code is running this thread's tasks
+     */
+    public boolean isCurrent() {
+        return Thread.currentThread() == (host != null ? host : this);
+    }
+
+    /**
+     * @return the thread running this thread's tasks, or null if it runs its own
+     */
+    @Nullable
+    public PhysicsThread getHost() {
+        return this.host;
+    }
+
+    /**
+     * Gets the reusable math objects of the thread actually running this thread's
+     * tasks. Should only be used from within those tasks.
+     * @return the {@link Scratch}
+     */
+    public Scratch getScratch() {
+        return host != null ? host.getScratch() : this.scratch;
+    }
+
+    public IdleStrategy getIdleStrategy() {
+        return this.idleStrategy;
+    }
+
+    /**
+     * Gets the task queue. Useful for monitoring the depth, wait
+     * time and dropped tasks of each {@link TaskPriority} class.
+     * @return the {@link TaskQueue}
+     */
+    public TaskQueue getTaskQueue() {
+        return this.tasks;
     }
 
     /**
@@ -108,12 +352,50 @@ public class PhysicsThread extends Thread implements Executor, Pausable {
     }
 
     /**
-     * Join the thread when the game closes.
+     * Join the thread when the game closes. A guest just detaches from its host. A host
+     * with guests still attached (e.g. the integrated server stopping before the client
+     * has disconnected) keeps running their tasks and is stopped by the last guest to detach.
      */
     public void destroy() {
+        if (host != null) {
+            this.running = false;
+            host.guests.remove(this);
+            RayonCoreCommon.LOGGER.info("Stopping " + getName() + " on " + host.getName());
+
+            if (host.stopping && host.guests.isEmpty()) {
+                host.halt();
+            }
+
+            return;
+        }
+
+        this.stopping = true;
+
+        if (!guests.isEmpty()) {
+            RayonCoreCommon.LOGGER.info("Keeping " + getName() + " running until its guests have stopped");
+            return;
+        }
+
+        halt();
+    }
+
+    /**
+     * Stops and joins this thread, unless it has already been stopped. Not joined
+     * when called from this thread (e.g. when a guest task fails during shutdown).
+     */
+    private void halt() {
+        if (!stopped.compareAndSet(false, true)) {
+            return;
+        }
+
         this.running = false;
+        LockSupport.unpark(this);
         RayonCoreCommon.LOGGER.info("Stopping " + getName());
 
+        if (Thread.currentThread() == this) {
+            return;
+        }
+
         try {
             this.join();
         } catch (InterruptedException e) {
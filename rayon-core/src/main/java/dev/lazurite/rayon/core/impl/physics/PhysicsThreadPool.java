@@ -0,0 +1,101 @@
+package dev.lazurite.rayon.core.impl.physics;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import dev.lazurite.rayon.core.impl.physics.space.MinecraftSpace;
+import dev.lazurite.rayon.core.impl.util.supplier.world.WorldSupplier;
+import net.minecraft.util.registry.RegistryKey;
+import net.minecraft.world.World;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * A fixed set of {@link PhysicsThread}s which worlds are pinned to. Each {@link MinecraftSpace}
+ * is assigned to the worker with the fewest worlds when it is created and stays there for its
+ * whole lifetime, so independent worlds are able to step at the same time while everything
+ * belonging to a single world still runs on one thread. With only one worker, this behaves
+ * exactly like a single {@link PhysicsThread}.
+ * @see PhysicsThread
+ * @see MinecraftSpace#getThread()
+ */
+public class PhysicsThreadPool {
+    private final List<PhysicsThread> threads = Lists.newArrayList();
+    private final Map<RegistryKey<World>, PhysicsThread> assignments = Maps.newHashMap();
+
+    public PhysicsThreadPool(Executor parentExecutor, Thread parentThread, WorldSupplier worldSupplier, String name, int size) {
+        if (size <= 1) {
+            threads.add(new PhysicsThread(parentExecutor, parentThread, worldSupplier, name));
+        } else {
+            for (int i = 0; i < size; i++) {
+                threads.add(new PhysicsThread(parentExecutor, parentThread, worldSupplier, name + " #" + (i + 1)));
+            }
+        }
+    }
+
+    /**
+     * Pins the given world to the least busy worker. Calling this more
+     * than once for the same world will return the same worker.
+     * @param world the world to assign
+     * @return the {@link PhysicsThread} the world's spaces should use
+     */
+    public synchronized PhysicsThread assign(World world) {
+        return assignments.computeIfAbsent(world.getRegistryKey(), key -> {
+            PhysicsThread out = threads.get(0);
+            int lowest = Integer.MAX_VALUE;
+
+            for (PhysicsThread thread : threads) {
+                int count = Collections.frequency(assignments.values(), thread);
+
+                if (count < lowest) {
+                    lowest = count;
+                    out = thread;
+                }
+            }
+
+            return out;
+        });
+    }
+
+    /**
+     * Unpins the given world so that it no longer counts towards its worker's load.
+     * Should be called once the world has been unloaded.
+     * @param world the world to unassign
+     */
+    public synchronized void unassign(World world) {
+        assignments.remove(world.getRegistryKey());
+    }
+
+    /**
+     * @return the first worker, used wherever a single thread is expected
+     */
+    public PhysicsThread getMain() {
+        return threads.get(0);
+    }
+
+    public List<PhysicsThread> getThreads() {
+        return this.threads;
+    }
+
+    /**
+     * @return the first exception thrown by any worker, or null if there is none
+     */
+    public Throwable getThrowable() {
+        for (PhysicsThread thread : threads) {
+            if (thread.throwable != null) {
+                return thread.throwable;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Join all of the workers when the game closes.
+     */
+    public void destroy() {
+        threads.forEach(PhysicsThread::destroy);
+    }
+}
@@ -78,7 +78,13 @@ public final class DebugManager {
     }
 
     public void render(World world, Camera camera, float tickDelta) {
-        for (Debuggable body : MinecraftSpace.get(world).getRigidBodiesByClass(Debuggable.class)) {
+        MinecraftSpace space = MinecraftSpace.getIfPresent(world);
+
+        if (space == null) {
+            return;
+        }
+
+        for (Debuggable body : space.getRigidBodiesByClass(Debuggable.class)) {
             if (body instanceof PhysicsRigidBody && body.getDebugLayer().ordinal() <= debugLayer.ordinal()) {
                 if (VectorHelper.vector3fToVec3d(((PhysicsRigidBody) body).getPhysicsLocation(new Vector3f()))
                         .distanceTo(camera.getPos()) < MinecraftClient.getInstance().options.viewDistance * 16) {
@@ -1,32 +1,63 @@
 package dev.lazurite.rayon.core.impl.physics.space;
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import com.jme3.bounding.BoundingBox;
 import com.jme3.bullet.PhysicsSpace;
 import com.jme3.bullet.collision.PhysicsCollisionEvent;
 import com.jme3.bullet.collision.PhysicsCollisionListener;
+import com.jme3.bullet.NativePhysicsObject;
+import com.jme3.bullet.collision.PhysicsCollisionObject;
 import com.jme3.bullet.objects.PhysicsRigidBody;
 import com.jme3.math.Vector3f;
 import dev.lazurite.rayon.core.api.PhysicsElement;
 import dev.lazurite.rayon.core.api.event.ElementCollisionEvents;
+import dev.lazurite.rayon.core.api.event.ElementContactEvents;
 import dev.lazurite.rayon.core.api.event.PhysicsSpaceEvents;
 import dev.lazurite.rayon.core.impl.RayonCoreCommon;
 import dev.lazurite.rayon.core.impl.physics.space.body.BlockRigidBody;
 import dev.lazurite.rayon.core.impl.physics.space.body.ElementRigidBody;
+import dev.lazurite.rayon.core.impl.physics.space.body.MergedRigidBody;
 import dev.lazurite.rayon.core.impl.physics.space.body.type.TerrainLoading;
+import dev.lazurite.rayon.core.impl.physics.space.environment.FluidResistance;
 import dev.lazurite.rayon.core.impl.physics.space.environment.TerrainManager;
+import dev.lazurite.rayon.core.impl.physics.space.util.BodyIndex;
+import dev.lazurite.rayon.core.impl.physics.space.util.BoundsHash;
+import dev.lazurite.rayon.core.impl.physics.space.util.ContactBuffer;
+import dev.lazurite.rayon.core.impl.physics.space.util.ParallelTerrainScan;
 import dev.lazurite.rayon.core.impl.physics.space.util.SpaceStorage;
 import dev.lazurite.rayon.core.impl.physics.PhysicsThread;
-import dev.lazurite.rayon.core.impl.util.math.BoxHelper;
-import dev.lazurite.rayon.core.impl.util.math.VectorHelper;
-import dev.lazurite.rayon.core.impl.util.supplier.entity.EntitySupplier;
+import dev.lazurite.rayon.core.impl.physics.util.thread.Scratch;
+import dev.lazurite.rayon.core.impl.physics.util.thread.StepGovernor;
+import dev.lazurite.rayon.core.impl.physics.util.thread.StepProfiler;
+import dev.lazurite.rayon.core.impl.physics.util.thread.TaskPriority;
+import dev.lazurite.rayon.core.impl.physics.util.thread.TimestepManager;
+import dev.lazurite.rayon.core.impl.util.config.Config;
+import dev.lazurite.rayon.core.impl.util.math.Frame;
+import dev.lazurite.rayon.core.impl.util.supplier.entity.EntitySnapshot;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import it.unimi.dsi.fastutil.objects.Reference2IntMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import net.fabricmc.fabric.api.event.Event;
+import net.minecraft.entity.Entity;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.util.Identifier;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Box;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.util.math.Vec3d;
 import net.minecraft.world.World;
+import net.minecraft.world.border.WorldBorder;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Executor;
 import java.util.function.BooleanSupplier;
 
@@ -46,12 +77,36 @@ import java.util.function.BooleanSupplier;
 public class MinecraftSpace extends PhysicsSpace implements PhysicsCollisionListener {
     public static final Identifier MAIN = new Identifier(RayonCoreCommon.MODID, "main");
     private static final int MAX_PRESIM_STEPS = 10;
+    private static final int TERRAIN_THROTTLE_INTERVAL = 4;
+    private static final float SLOW_SPEED_SQUARED = 1.0f;
+    private static final int BROADPHASE_MARGIN = 64;
 
     private final TerrainManager terrainManager;
+    private final FluidResistance fluidResistance;
+    private final TimestepManager timestep;
+    private final StepGovernor governor;
+    private final StepProfiler profiler = new StepProfiler();
+    private final Set<ElementRigidBody> frozen = Sets.newHashSet();
+    private final Set<ElementRigidBody> sleeping = Sets.newHashSet();
+    private final BoundsHash awake = new BoundsHash();
+    private final LongSet changedBlocks = new LongOpenHashSet();
+    private final LongSet wakingBlocks = new LongOpenHashSet();
+    private final boolean pipelined;
     private final PhysicsThread thread;
     private final World world;
     private int presimSteps;
+    private long stepCount;
     private volatile boolean stepping;
+    private boolean initialized;
+    private volatile EntitySnapshot entities = EntitySnapshot.EMPTY;
+    private volatile long lastUsed = System.currentTimeMillis();
+    private final Map<Class<?>, BodyIndex<?>> indexes = Maps.newConcurrentMap();
+    private final Reference2IntMap<PhysicsCollisionObject> bodyIds = new Reference2IntOpenHashMap<>();
+    private final Long2ObjectMap<BlockRigidBody> blocks = new Long2ObjectOpenHashMap<>();
+    private ContactBuffer contacts = new ContactBuffer();
+    private ContactBuffer previousContacts = new ContactBuffer();
+    private int nextBodyId;
+    private boolean listening;
 
     private float airDensity;
     private float waterDensity;
@@ -59,21 +114,122 @@ public class MinecraftSpace extends PhysicsSpace implements PhysicsCollisionList
 
     /**
      * Allows users to retrieve the {@link MinecraftSpace} associated
-     * with any given {@link World} object (client or server).
+     * with any given {@link World} object (client or server). If the
+     * space hasn't been created yet, it is created here, which is only
+     * allowed on the main thread. From within a physics task, use
+     * {@link MinecraftSpace#getIfPresent(World)} instead.
      * @param world the world to get the physics space from
      * @return the {@link MinecraftSpace}
+     * @throws IllegalStateException if the space has to be created and this isn't the main thread
+     * @see MinecraftSpace#getIfPresent(World)
      */
     public static MinecraftSpace get(World world) {
+        MinecraftSpace space = ((SpaceStorage) world).getOrCreateSpace(MAIN, () -> create(world));
+
+        /* Fired once the space is stored, so listeners calling get() don't create it again */
+        if (!space.initialized && Thread.currentThread() == space.getThread().getParentThread()) {
+            space.initialized = true;
+            PhysicsSpaceEvents.INIT.invoker().onInit(space.getThread(), space);
+        }
+
+        space.lastUsed = System.currentTimeMillis();
+        return space;
+    }
+
+    /**
+     * Like {@link MinecraftSpace#get(World)}, except the space is never created.
+     * Useful for anything that only needs to read from the space.
+     * @param world the world to get the physics space from
+     * @return the {@link MinecraftSpace}, or null if it doesn't exist yet
+     */
+    @Nullable
+    public static MinecraftSpace getIfPresent(World world) {
         return ((SpaceStorage) world).getSpace(MAIN);
     }
 
+    /**
+     * Loads the given element into the main space of the given world, creating the space if needed.
+     * This is the only place a space is created lazily, and the element's body is bound to the space
+     * here as well. If called off the main thread, the whole thing is handed over to the main thread
+     * first. The element itself is loaded on the world's {@link PhysicsThread}.
+     * @param world the world to load the element into
+     * @param element the element to load
+     * @see MinecraftSpace#load(PhysicsElement)
+     */
+    public static void load(World world, PhysicsElement element) {
+        PhysicsThread thread = ((SpaceStorage) world).getPhysicsThread();
+
+        if (Thread.currentThread() != thread.getParentThread()) {
+            thread.getParentExecutor().execute(() -> load(world, element));
+            return;
+        }
+
+        MinecraftSpace space = get(world);
+        element.getRigidBody().setSpace(space);
+        space.getThread().execute(TaskPriority.LOADING, () -> space.load(element));
+    }
+
+    /**
+     * Creates the main space of the given world on the main thread, firing the {@link PhysicsSpaceEvents#PREINIT}
+     * event there as well. {@link PhysicsSpaceEvents#INIT} is fired by {@link MinecraftSpace#get(World)} once
+     * the space has been stored. The space is stepped on the world's {@link PhysicsThread}.
+     * @param world the world to create the space for
+     * @return the new {@link MinecraftSpace}
+     */
+    private static MinecraftSpace create(World world) {
+        PhysicsThread thread = ((SpaceStorage) world).getPhysicsThread();
+
+        if (Thread.currentThread() != thread.getParentThread()) {
+            throw new IllegalStateException("The physics space of " + world.getRegistryKey().getValue() + " must be created on the main thread");
+        }
+
+        PhysicsSpaceEvents.PREINIT.invoker().onPreInit(thread, world);
+        return new MinecraftSpace(thread, world);
+    }
+
+    /**
+     * Releases every space in the given world, e.g. once the main space has been
+     * idle for long enough. The spaces are emptied on their {@link PhysicsThread}
+     * and will be created again the next time {@link MinecraftSpace#get(World)} is called.<br>
+     * Once a space is empty, the native objects of any bodies and spaces which have since
+     * been garbage collected (including those released earlier) are freed as well, since
+     * Bullet never frees them on its own.
+     * @param world the world to release the spaces of
+     * @see MinecraftSpace#isIdle()
+     */
+    public static void release(World world) {
+        for (MinecraftSpace space : ((SpaceStorage) world).removeSpaces()) {
+            space.getThread().execute(TaskPriority.LOADING, () -> {
+                space.getRigidBodyList().forEach(space::removeCollisionObject);
+                space.getTerrainManager().clear();
+                space.frozen.clear();
+                space.sleeping.clear();
+                space.awake.clear();
+                NativePhysicsObject.freeUnusedObjects();
+            });
+        }
+    }
+
+    /**
+     * Creates a new space with the given broadphase. The bounds of the space are aligned to chunk
+     * sections and fit the build height of the world with some room to spare above and below it, which
+     * keeps the quantization of the axis sweep broadphases as fine as possible on the vertical axis.
+     * If the world border doesn't fit within the bounds, an axis sweep broadphase falls back to DBVT.
+     * @param thread the thread the space is stepped on
+     * @param world the world the space belongs to
+     * @param broadphase the broadphase
+     * @see Config#getBroadphase()
+     */
     public MinecraftSpace(PhysicsThread thread, World world, BroadphaseType broadphase) {
-        super(broadphase);
+        super(getWorldMin(), getWorldMax(world), getBroadphase(world, broadphase));
         this.thread = thread;
         this.world = world;
         this.terrainManager = new TerrainManager(this);
-        this.addCollisionListener(this);
-
+        this.fluidResistance = new FluidResistance(this);
+        this.bodyIds.defaultReturnValue(-1);
+        this.timestep = new TimestepManager(Config.isTimestepAccumulationEnabled(), Config.getMaxCatchUpSteps(), Config.getMinSubsteps(), Config.getMaxSubsteps());
+        this.pipelined = Config.isPipelinedSteppingEnabled();
+        this.governor = new StepGovernor(Config.getStepBudget(), Config.getDistantBodyDistance());
         this.setGravity(new Vector3f(0, -9.807f, 0)); // m/s/s
         this.setAirDensity(1.2f); // kg/m^3
         this.setWaterDensity(997f); // kg/m^3
@@ -82,22 +238,69 @@ public class MinecraftSpace extends PhysicsSpace implements PhysicsCollisionList
     }
 
     public MinecraftSpace(PhysicsThread thread, World world) {
-        this(thread, world, BroadphaseType.DBVT);
+        this(thread, world, Config.getBroadphase());
+    }
+
+    private static Vector3f getWorldMin() {
+        int extent = getExtent();
+        return new Vector3f(-extent, -BROADPHASE_MARGIN, -extent);
+    }
+
+    private static Vector3f getWorldMax(World world) {
+        int extent = getExtent();
+        return new Vector3f(extent, MathHelper.roundUpToMultiple(world.getHeight(), 16) + BROADPHASE_MARGIN, extent);
+    }
+
+    private static int getExtent() {
+        return MathHelper.roundUpToMultiple(Config.getBroadphaseExtent(), 16);
+    }
+
+    /**
+     * The axis sweep broadphases can't see anything outside of their bounds, so they're only
+     * used when the world border keeps everything within {@link Config#getBroadphaseExtent()}.
+     * Since the vanilla border is far larger than that, worlds without a smaller border use DBVT.
+     * This is only checked when the space is created, so a border which later grows past the
+     * bounds isn't noticed until the space is created again.
+     * @param world the world the space belongs to
+     * @param broadphase the broadphase asked for
+     * @return the broadphase to use
+     */
+    private static BroadphaseType getBroadphase(World world, BroadphaseType broadphase) {
+        if (broadphase != BroadphaseType.AXIS_SWEEP_3 && broadphase != BroadphaseType.AXIS_SWEEP_3_32) {
+            return broadphase;
+        }
+
+        WorldBorder border = world.getWorldBorder();
+        double reach = Math.max(Math.abs(border.getCenterX()), Math.abs(border.getCenterZ())) + border.getSize() / 2.0;
+
+        if (reach > getExtent()) {
+            RayonCoreCommon.LOGGER.warn("The world border of " + world.getRegistryKey().getValue() + " reaches past space.broadphaseExtent (" +
+                    getExtent() + "), using " + BroadphaseType.DBVT + " instead of " + broadphase);
+            return BroadphaseType.DBVT;
+        }
+
+        return broadphase;
     }
 
     /**
      * This method performs the following steps:
      * <ul>
      *     <li>Fires world step events in {@link PhysicsSpaceEvents}.</li>
-     *     <li>Steps {@link ElementRigidBody}s.</li>
+     *     <li>Pushes {@link ElementRigidBody}s away from entities using the tick's {@link EntitySnapshot}.</li>
+     *     <li>Steps {@link ElementRigidBody}s. Sleeping bodies are skipped unless they touch an awake body.</li>
      *     <li>Applies air drag force to all {@link ElementRigidBody}s.</li>
-     *     <li>Loads blocks into the simulation around {@link ElementRigidBody}s using {@link TerrainManager}.</li>
-     *     <li>Triggers all collision events (queues up tasks in server thread).</li>
-     *     <li>Steps the simulation using {@link PhysicsSpace#update(float, int)}.</li>
+     *     <li>Loads blocks into the simulation around {@link ElementRigidBody}s using {@link TerrainManager}.
+     *         Overlapping load areas are only scanned once. Optionally, the block scan is run in parallel using {@link ParallelTerrainScan}.</li>
+     *     <li>Triggers all collision events, then one impact event per pair of touching bodies.</li>
+     *     <li>Steps the simulation using {@link PhysicsSpace#update(float, int)} as decided by {@link TimestepManager}.</li>
      * </ul>
      *
+     * If a step runs over its budget, the {@link StepGovernor} gradually turns down the amount of work done here.
+     * Each of the above can be timed using the {@link StepProfiler}.
+     *
      * Additionally, none of the above steps execute when either the world is empty
-     * (no {@link PhysicsRigidBody}s) or when the game is paused.
+     * (no {@link PhysicsRigidBody}s), when the game is paused or when the {@link TimestepManager}
+     * has no steps to take yet. That's decided on the main thread before the step events fire.
      *
      * @param shouldStep whether or not to fully step the simulation
      * @see TerrainManager
@@ -105,74 +308,330 @@ public class MinecraftSpace extends PhysicsSpace implements PhysicsCollisionList
      */
     public void step(BooleanSupplier shouldStep) {
         if (shouldStep.getAsBoolean()) {
+            /* Decided here so that the step event only fires on ticks which actually step */
+            int steps = presimSteps > MAX_PRESIM_STEPS ? timestep.consumeSteps() : 0;
+
+            /* Nothing to do until enough time has built up */
+            if (presimSteps > MAX_PRESIM_STEPS && steps == 0) {
+                updateFrames();
+                return;
+            }
+
             stepping = true;
 
             /* World Step Event */
+            long eventStart = profiler.start();
             PhysicsSpaceEvents.STEP.invoker().onStep(this);
+            long eventTime = profiler.elapsed(eventStart);
 
-            getRigidBodiesByClass(ElementRigidBody.class).forEach(rigidBody -> {
-                /* Frame Update */
-                rigidBody.updateFrame();
+            /* Frame Update */
+            updateFrames();
 
-                /* Entity Collisions */
-                BoundingBox box = rigidBody.boundingBox(new BoundingBox());
-                Vector3f location = rigidBody.getPhysicsLocation(new Vector3f()).subtract(new Vector3f(0, -box.getYExtent(), 0));
-                float mass = rigidBody.getMass();
+            /* Player positions for the governor */
+            List<Vec3d> players = Lists.newArrayList();
+            getWorld().getPlayers().forEach(player -> players.add(player.getPos()));
 
-                EntitySupplier.getInsideOf(rigidBody).forEach(entity -> {
-                    Vector3f entityPos = VectorHelper.vec3dToVector3f(entity.getPos().add(0, entity.getBoundingBox().getYLength(), 0));
-                    Vector3f normal = location.subtract(entityPos).multLocal(new Vector3f(1, 0, 1)).normalize();
+            getThread().execute(TaskPriority.STEP, () -> {
+                long startTime = System.nanoTime();
+                profiler.add(StepProfiler.Phase.STEP_EVENT, eventTime);
+                ++stepCount;
+                EntitySnapshot entities = this.entities;
+                Scratch scratch = getThread().getScratch();
+                updateCollisionListener();
 
-                    Box intersection = entity.getBoundingBox().intersection(BoxHelper.bulletToMinecraft(box));
-                    Vector3f force = normal.clone().multLocal((float) intersection.getAverageSideLength() / (float) BoxHelper.bulletToMinecraft(box).getAverageSideLength())
-                            .multLocal(mass).multLocal(new Vector3f(1, 0, 1));
-                    rigidBody.applyCentralImpulse(force);
-                });
-            });
+                /* Step */
+                List<ElementRigidBody> rigidBodies = getRigidBodySnapshotByClass(ElementRigidBody.class);
+                wakeChangedBlocks(rigidBodies);
+                sleeping.clear();
+                awake.clear();
 
-            getThread().execute(() -> {
-                /* Step and Fluid Resistance */
-                getRigidBodiesByClass(ElementRigidBody.class).forEach(rigidBody -> {
-                    rigidBody.getElement().step(this);
+                for (ElementRigidBody rigidBody : rigidBodies) {
+                    if (updateFrozen(rigidBody, players)) {
+                        continue;
+                    }
 
-                    if (rigidBody.shouldDoFluidResistance()) {
-                        float dragCoefficient = rigidBody.getDragCoefficient();
-                        float area = (float) Math.pow(rigidBody.boundingBox(new BoundingBox()).getExtent(new Vector3f()).lengthSquared(), 2);
-                        float k = (getAirDensity() * dragCoefficient * area) / 2.0f;
-                        Vector3f force = new Vector3f().set(rigidBody.getLinearVelocity(new Vector3f())).multLocal(-rigidBody.getLinearVelocity(new Vector3f()).lengthSquared()).multLocal(k);
+                    if (updateSleeping(rigidBody, entities)) {
+                        sleeping.add(rigidBody);
+                        continue;
+                    }
 
-                        if (Float.isFinite(force.lengthSquared()) && force.lengthSquared() > 0.1f) {
-                            rigidBody.applyCentralForce(force);
-                        }
+                    BoundingBox box = rigidBody.boundingBox(scratch.box(1));
+                    Vector3f min = box.getMin(scratch.vector(2));
+                    Vector3f max = box.getMax(scratch.vector(3));
+                    awake.add(min.x, min.y, min.z, max.x, max.y, max.z);
+                    stepElement(rigidBody, min, max, entities);
+                }
+
+                /* Sleeping bodies touching an awake body are stepped as well */
+                sleeping.removeIf(rigidBody -> {
+                    Box sleepBox = rigidBody.getSleepBox();
+
+                    if (awake.anyIntersecting(sleepBox)) {
+                        Vector3f min = scratch.vector(2).set((float) sleepBox.minX, (float) sleepBox.minY, (float) sleepBox.minZ);
+                        Vector3f max = scratch.vector(3).set((float) sleepBox.maxX, (float) sleepBox.maxY, (float) sleepBox.maxZ);
+                        stepElement(rigidBody, min, max, entities);
+                        return true;
                     }
+
+                    return false;
                 });
 
+                /* Fluid Resistance */
+                long dragStart = profiler.start();
+                fluidResistance.apply(governor.isAtLeast(StepGovernor.Level.NO_SLOW_DRAG) ? SLOW_SPEED_SQUARED : 0.0f);
+                profiler.stop(StepProfiler.Phase.DRAG, dragStart);
+
+                /* Terrain Loading */
+                long terrainStart = profiler.start();
+                List<TerrainLoading> terrainBodies = Lists.newArrayList();
+                boolean throttle = governor.isAtLeast(StepGovernor.Level.THROTTLED_TERRAIN);
+
                 getRigidBodiesByClass(TerrainLoading.class).forEach(terrainBody -> {
                     if (terrainBody.shouldDoTerrainLoading()) {
-                        Vector3f pos = ((PhysicsRigidBody) terrainBody).getPhysicsLocation(new Vector3f());
-                        Box box = new Box(new BlockPos(pos.x, pos.y, pos.z)).expand(terrainBody.getEnvironmentLoadDistance());
-                        terrainManager.load(terrainBody, box);
+                        if (frozen.contains(terrainBody) || sleeping.contains(terrainBody) || (throttle && (stepCount + terrainBodies.size()) % TERRAIN_THROTTLE_INTERVAL != 0 &&
+                                governor.isDistant(((PhysicsRigidBody) terrainBody).getPhysicsLocation(scratch.vector(0)), players))) {
+                            terrainManager.keep(terrainBody);
+                        } else {
+                            terrainBodies.add(terrainBody);
+                        }
                     }
                 });
 
+                terrainManager.load(terrainBodies);
+
+                profiler.stop(StepProfiler.Phase.TERRAIN_LOAD, terrainStart);
+
+                long purgeStart = profiler.start();
                 terrainManager.purge();
+                profiler.stop(StepProfiler.Phase.PURGE, purgeStart);
 
                 /* Step Simulation */
+                long updateStart = profiler.start();
+
                 if (presimSteps > MAX_PRESIM_STEPS) {
-                    update(1 / 20f, 5);
-                } else ++presimSteps;
+                    for (int i = steps; i > 0; i--) {
+                        int substeps = timestep.chooseSubsteps(this, governor.isAtLeast(StepGovernor.Level.FEWER_SUBSTEPS));
+                        update(TimestepManager.STEP, substeps);
+                    }
+                } else {
+                    ++presimSteps;
+                    timestep.reset();
+                }
 
+                profiler.stop(StepProfiler.Phase.UPDATE, updateStart);
+
+                long eventsStart = profiler.start();
                 distributeEvents();
+
+                if (ElementCollisionEvents.hasImpactListeners()) {
+                    distributeImpacts();
+                }
+
+                distributeContacts();
+                profiler.stop(StepProfiler.Phase.EVENTS, eventsStart);
+
+                /* Hand-off point for the next tick */
+                if (pipelined) {
+                    getRigidBodiesByClass(ElementRigidBody.class).forEach(rigidBody -> {
+                        if (!sleeping.contains(rigidBody)) {
+                            rigidBody.publishSnapshot();
+                        }
+                    });
+                }
+
+                if (!isInPresim()) {
+                    governor.record(System.nanoTime() - startTime);
+                }
+                profiler.commit();
                 stepping = false;
             });
         } else {
             // If we made it here, it means we're skipping steps due to poor performance.
-            getRigidBodiesByClass(ElementRigidBody.class).forEach(ElementRigidBody::updateFrame);
+            timestep.requestReset();
+            updateFrames();
+        }
+    }
+
+    /**
+     * Updates the {@link Frame} of every {@link ElementRigidBody} on the main thread. Sleeping
+     * bodies whose frame has already settled are skipped since they haven't moved.
+     */
+    private void updateFrames() {
+        for (ElementRigidBody rigidBody : getRigidBodiesByClass(ElementRigidBody.class)) {
+            if (rigidBody.isSleeping() && rigidBody.getFrame().isSettled()) {
+                continue;
+            }
+
+            if (!pipelined) {
+                rigidBody.updateFrame();
+            } else if (rigidBody.getSnapshot() != null) {
+                rigidBody.updateFrame(rigidBody.getSnapshot());
+            }
+        }
+    }
+
+    /**
+     * Does all of the per-body work of a step for an awake body. A {@link Box} is
+     * only made for the body if there's actually an entity inside of it to push.
+     * @param rigidBody the body to step
+     * @param min the current minimum corner of the body
+     * @param max the current maximum corner of the body
+     * @param entities the entities captured at the start of this tick
+     */
+    private void stepElement(ElementRigidBody rigidBody, Vector3f min, Vector3f max, EntitySnapshot entities) {
+        /* Entity Collisions */
+        long pushStart = profiler.start();
+
+        if (entities.anyInside(min.x, min.y, min.z, max.x, max.y, max.z)) {
+            pushEntities(rigidBody, new Box(min.x, min.y, min.z, max.x, max.y, max.z), entities);
+        }
+
+        profiler.stop(StepProfiler.Phase.ENTITY_PUSH, pushStart);
+
+        long elementStart = profiler.start();
+        rigidBody.getElement().step(this);
+        profiler.stop(StepProfiler.Phase.ELEMENT_STEP, elementStart);
+
+        if (rigidBody.shouldDoFluidResistance()) {
+            long dragStart = profiler.start();
+            fluidResistance.add(rigidBody);
+            profiler.stop(StepProfiler.Phase.DRAG, dragStart);
+        }
+    }
+
+    /**
+     * Keeps track of whether or not the given body is asleep. A sleeping body is woken
+     * up when an entity moves into it, or by {@link MinecraftSpace#onBlockChanged}.
+     * @param rigidBody the body to check
+     * @param entities the entities captured at the start of this tick
+     * @return whether or not the body should be skipped during this step
+     */
+    private boolean updateSleeping(ElementRigidBody rigidBody, EntitySnapshot entities) {
+        if (rigidBody.isActive()) {
+            rigidBody.setSleepBox(null);
+            return false;
+        }
+
+        if (!rigidBody.isSleeping()) {
+            rigidBody.setSleepBox(getBox(rigidBody));
+        }
+
+        if (entities.anyInside(rigidBody.getSleepBox())) {
+            rigidBody.activate();
+            rigidBody.setSleepBox(null);
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Lets the space know that a block has changed so that any sleeping bodies
+     * nearby are woken up during the next step. Can be called from any thread.
+     * @param blockPos the position of the block that changed
+     */
+    public void onBlockChanged(BlockPos blockPos) {
+        if (!getRigidBodiesByClass(ElementRigidBody.class).isEmpty() || terrainManager.hasSections()) {
+            synchronized (changedBlocks) {
+                changedBlocks.add(blockPos.asLong());
+            }
+        }
+    }
+
+    private void wakeChangedBlocks(List<ElementRigidBody> rigidBodies) {
+        synchronized (changedBlocks) {
+            if (changedBlocks.isEmpty()) {
+                return;
+            }
+
+            wakingBlocks.addAll(changedBlocks);
+            changedBlocks.clear();
+        }
+
+        LongIterator iterator = wakingBlocks.iterator();
+
+        while (iterator.hasNext()) {
+            long blockPos = iterator.nextLong();
+            int x = BlockPos.unpackLongX(blockPos);
+            int y = BlockPos.unpackLongY(blockPos);
+            int z = BlockPos.unpackLongZ(blockPos);
+            fluidResistance.invalidate(blockPos);
+            terrainManager.invalidate(blockPos);
+
+            for (ElementRigidBody rigidBody : rigidBodies) {
+                Box sleepBox = rigidBody.getSleepBox();
+
+                if (sleepBox != null && sleepBox.intersects(x - 1, y - 1, z - 1, x + 2, y + 2, z + 2)) {
+                    rigidBody.activate();
+                    rigidBody.setSleepBox(null);
+                }
+            }
+        }
+
+        wakingBlocks.clear();
+    }
+
+    private Box getBox(ElementRigidBody rigidBody) {
+        Scratch scratch = getThread().getScratch();
+        BoundingBox box = rigidBody.boundingBox(scratch.box(1));
+        Vector3f min = box.getMin(scratch.vector(2));
+        Vector3f max = box.getMax(scratch.vector(3));
+        return new Box(min.x, min.y, min.z, max.x, max.y, max.z);
+    }
+
+    /**
+     * Pushes the given body away from any pushable entities inside of it.
+     * @param rigidBody the body to push
+     * @param mcBox the current bounds of the body
+     * @param entities the entities captured at the start of this tick
+     */
+    private void pushEntities(ElementRigidBody rigidBody, Box mcBox, EntitySnapshot entities) {
+        Scratch scratch = getThread().getScratch();
+        double averageSideLength = mcBox.getAverageSideLength();
+        Vector3f location = rigidBody.getPhysicsLocation(scratch.vector(4));
+        location.y += (float) mcBox.getYLength() / 2.0f;
+        float mass = rigidBody.getMass();
+
+        entities.forEachInside(mcBox, entity -> {
+            Box entityBox = entity.getBox();
+            Vec3d entityPos = entity.getPos();
+            Vector3f normal = scratch.vector(5).set(location);
+            normal.x -= (float) entityPos.x;
+            normal.y = 0;
+            normal.z -= (float) entityPos.z;
+            normal.normalizeLocal();
+
+            /* Average side length of the intersection between the two boxes */
+            double intersection = (
+                    (Math.min(entityBox.maxX, mcBox.maxX) - Math.max(entityBox.minX, mcBox.minX)) +
+                    (Math.min(entityBox.maxY, mcBox.maxY) - Math.max(entityBox.minY, mcBox.minY)) +
+                    (Math.min(entityBox.maxZ, mcBox.maxZ) - Math.max(entityBox.minZ, mcBox.minZ))) / 3.0;
+
+            rigidBody.applyCentralImpulse(normal.multLocal((float) intersection / (float) averageSideLength * mass));
+        });
+    }
+
+    /**
+     * Publishes a new {@link EntitySnapshot} for the physics thread to use during the next
+     * step. Should be called on the main thread right before {@link MinecraftSpace#step}.
+     * Nothing is captured while there aren't any {@link ElementRigidBody}s to push.
+     * @param entities every entity in the world
+     */
+    public void captureEntities(Iterable<Entity> entities) {
+        if (getRigidBodiesByClass(ElementRigidBody.class).isEmpty()) {
+            this.entities = EntitySnapshot.EMPTY;
+        } else {
+            this.entities = EntitySnapshot.capture(entities);
         }
     }
 
+    public EntitySnapshot getEntitySnapshot() {
+        return this.entities;
+    }
+
     public void load(PhysicsElement element) {
         ElementRigidBody rigidBody = element.getRigidBody();
+        rigidBody.setSpace(this);
 
         if (!rigidBody.isInWorld()) {
             element.reset();
@@ -180,18 +639,78 @@ public class MinecraftSpace extends PhysicsSpace implements PhysicsCollisionList
         }
 
         rigidBody.activate();
+
+        if (pipelined) {
+            rigidBody.publishSnapshot();
+        }
     }
 
     public void unload(PhysicsElement element) {
+        if (frozen.remove(element.getRigidBody())) {
+            element.getRigidBody().setKinematic(false);
+        }
+
         if (element.getRigidBody().isInWorld()) {
             removeCollisionObject(element.getRigidBody());
         }
     }
 
+    /**
+     * Freezes or unfreezes the given body depending on the {@link StepGovernor} level, its
+     * priority player and its distance from players. Frozen bodies are made kinematic so
+     * they stay in place without costing any Java-side work.
+     * @param rigidBody the body to update
+     * @param players the positions of every player in the world
+     * @return whether or not the body is frozen
+     */
+    private boolean updateFrozen(ElementRigidBody rigidBody, List<Vec3d> players) {
+        boolean freeze = governor.isAtLeast(StepGovernor.Level.FROZEN_ELEMENTS) && rigidBody.getPriorityPlayer() == null &&
+                governor.isDistant(rigidBody.getPhysicsLocation(getThread().getScratch().vector(0)), players);
+
+        if (freeze && !frozen.contains(rigidBody) && !rigidBody.isKinematic()) {
+            rigidBody.setKinematic(true);
+            frozen.add(rigidBody);
+        } else if (!freeze && frozen.remove(rigidBody)) {
+            rigidBody.setKinematic(false);
+            rigidBody.activate();
+        }
+
+        return frozen.contains(rigidBody);
+    }
+
     public boolean isServer() {
         return getThread().getParentExecutor() instanceof MinecraftServer;
     }
 
+    /**
+     * In pipelined mode, the main thread never reads from the native simulation during
+     * {@link MinecraftSpace#step}. Instead, it consumes the {@link ElementRigidBody.Snapshot}s
+     * published at the end of the previous step while the next step runs.
+     * @return whether or not this space is pipelined
+     */
+    public boolean isPipelined() {
+        return this.pipelined;
+    }
+
+    /**
+     * A space is idle once it has been without any bodies other than terrain for
+     * longer than {@link Config#getIdleReleaseSeconds()}. Only lazily created spaces
+     * are ever idle, since eager ones are expected to exist for the life of the world.
+     * Should be called on the main thread.
+     * @return whether or not the space can be released
+     */
+    public boolean isIdle() {
+        long now = System.currentTimeMillis();
+
+        if (!Config.isLazySpaceCreationEnabled() || Config.getIdleReleaseSeconds() <= 0 ||
+                countRigidBodies() > getRigidBodiesByClass(BlockRigidBody.class).size()) {
+            lastUsed = now;
+            return false;
+        }
+
+        return now - lastUsed > Config.getIdleReleaseSeconds() * 1000L;
+    }
+
     public boolean isStepping() {
         return this.stepping;
     }
@@ -204,16 +723,104 @@ public class MinecraftSpace extends PhysicsSpace implements PhysicsCollisionList
         return presimSteps < MAX_PRESIM_STEPS;
     }
 
+    /**
+     * Gets every rigid body of the given type (including interfaces such as {@link TerrainLoading}).
+     * On the physics thread, this returns a live, unmodifiable view which must not be iterated while
+     * bodies are being added or removed. On any other thread, it returns a copy which is only rebuilt
+     * after bodies have been added or removed. Neither case allocates in the steady state.
+     * @param type the type of body
+     * @param <T> the type of body
+     * @return the list of bodies
+     * @see MinecraftSpace#getRigidBodySnapshotByClass
+     */
     public <T> List<T> getRigidBodiesByClass(Class<T> type) {
-        List<T> out = Lists.newArrayList();
+        BodyIndex<T> index = getIndex(type);
+        return getThread().isCurrent() ? index.getLive() : index.getSnapshot();
+    }
+
+    /**
+     * Like {@link MinecraftSpace#getRigidBodiesByClass}, but always returns the copy. Use this on the
+     * physics thread when bodies may be added or removed while iterating (e.g. within user code).
+     * @param type the type of body
+     * @param <T> the type of body
+     * @return the list of bodies
+     */
+    public <T> List<T> getRigidBodySnapshotByClass(Class<T> type) {
+        return getIndex(type).getSnapshot();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> BodyIndex<T> getIndex(Class<T> type) {
+        BodyIndex<T> index = (BodyIndex<T>) indexes.get(type);
+
+        if (index == null) {
+            synchronized (indexes) {
+                index = (BodyIndex<T>) indexes.get(type);
+
+                if (index == null) {
+                    index = new BodyIndex<>(type);
+                    getRigidBodyList().forEach(index::add);
+                    indexes.put(type, index);
+                }
+            }
+        }
+
+        return index;
+    }
+
+    @Override
+    public void addCollisionObject(PhysicsCollisionObject collisionObject) {
+        synchronized (indexes) {
+            super.addCollisionObject(collisionObject);
+            bodyIds.put(collisionObject, nextBodyId++ & Integer.MAX_VALUE);
+
+            if (collisionObject instanceof PhysicsRigidBody) {
+                indexes.values().forEach(index -> index.add(collisionObject));
+            }
+
+            if (collisionObject instanceof BlockRigidBody && !(collisionObject instanceof MergedRigidBody)) {
+                blocks.put(((BlockRigidBody) collisionObject).getBlockPos().asLong(), (BlockRigidBody) collisionObject);
+            }
+        }
+    }
+
+    @Override
+    public void removeCollisionObject(PhysicsCollisionObject collisionObject) {
+        synchronized (indexes) {
+            super.removeCollisionObject(collisionObject);
+            bodyIds.removeInt(collisionObject);
+            indexes.values().forEach(index -> index.remove(collisionObject));
 
-        for (PhysicsRigidBody body : getRigidBodyList()) {
-            if (type.isAssignableFrom(body.getClass())) {
-                out.add(type.cast(body));
+            if (collisionObject instanceof BlockRigidBody && !(collisionObject instanceof MergedRigidBody)) {
+                blocks.remove(((BlockRigidBody) collisionObject).getBlockPos().asLong(), collisionObject);
             }
         }
+    }
 
-        return out;
+    /**
+     * Gets the {@link BlockRigidBody} at the given position in constant time. Meant to be
+     * called from the physics thread (e.g. within a collision listener or step event).
+     * If the block is part of a {@link MergedRigidBody}, that body is returned instead. Use
+     * {@link BlockRigidBody#getBlockState(BlockPos)} to get the block itself from it, since a
+     * merged body's own position and state only describe the lowest corner of its box.
+     * @param blockPos the position of the block
+     * @return the body, or null if the block isn't loaded in this space
+     * @see MinecraftSpace#getBlockRigidBody(long)
+     */
+    @Nullable
+    public BlockRigidBody getBlockRigidBody(BlockPos blockPos) {
+        return getBlockRigidBody(blockPos.asLong());
+    }
+
+    /**
+     * @param blockPos the position of the block, packed using {@link BlockPos#asLong()}
+     * @return the body, or null if the block isn't loaded in this space
+     * @see MinecraftSpace#getBlockRigidBody(BlockPos)
+     */
+    @Nullable
+    public BlockRigidBody getBlockRigidBody(long blockPos) {
+        BlockRigidBody body = blocks.get(blockPos);
+        return body == null ? terrainManager.getMergedBody(blockPos) : body;
     }
 
     public PhysicsThread getThread() {
@@ -252,32 +859,194 @@ public class MinecraftSpace extends PhysicsSpace implements PhysicsCollisionList
         return this.terrainManager;
     }
 
+    public FluidResistance getFluidResistance() {
+        return this.fluidResistance;
+    }
+
+    public TimestepManager getTimestep() {
+        return this.timestep;
+    }
+
+    public StepGovernor getGovernor() {
+        return this.governor;
+    }
+
+    public StepProfiler getProfiler() {
+        return this.profiler;
+    }
+
     /**
-     * Trigger all collision events (e.g. block/element or element/element).
+     * Triggers the per contact point collision events (e.g. block/element or element/element)
+     * and collects the contact into the {@link ContactBuffer} for the per pair impact events.
+     * Only called while {@link ElementCollisionEvents} or {@link ElementContactEvents} has listeners.
      * @param event the event context
+     * @see MinecraftSpace#distributeImpacts()
      */
     @Override
     public void collision(PhysicsCollisionEvent event) {
-        Executor thread = getThread().getParentExecutor();
+        PhysicsCollisionObject objectA = event.getObjectA();
+        PhysicsCollisionObject objectB = event.getObjectB();
+        boolean swapped = false;
+
+        /* Make sure that if there is an element, it comes first */
+        if (objectA instanceof BlockRigidBody && objectB instanceof ElementRigidBody) {
+            objectA = event.getObjectB();
+            objectB = event.getObjectA();
+            swapped = true;
+        }
+
+        if (!(objectA instanceof ElementRigidBody) || !(objectB instanceof ElementRigidBody || objectB instanceof BlockRigidBody)) {
+            return;
+        }
+
         float impulse = event.getAppliedImpulse();
+        Vector3f location = null;
+
+        /* Nudge the contact point into the merged body so the block that was hit can be found */
+        if (objectB instanceof MergedRigidBody) {
+            Scratch scratch = getThread().getScratch();
+            Vector3f normal = event.getNormalWorldOnB(scratch.vector(7)).multLocal(0.01f);
+
+            if (swapped) {
+                location = event.getPositionWorldOnA(scratch.vector(6)).addLocal(normal);
+            } else {
+                location = event.getPositionWorldOnB(scratch.vector(6)).subtractLocal(normal);
+            }
+        }
+
+        if (ElementCollisionEvents.hasCollisionListeners()) {
+            Executor thread = getThread().getParentExecutor();
+            PhysicsElement element = ((ElementRigidBody) objectA).getElement();
+
+            /* Element on Element */
+            if (objectB instanceof ElementRigidBody) {
+                ElementCollisionEvents.ELEMENT_COLLISION.invoker().onCollide(thread, element, ((ElementRigidBody) objectB).getElement(), impulse);
+
+            /* Element on Block */
+            } else {
+                BlockRigidBody block = (BlockRigidBody) objectB;
+                ElementCollisionEvents.BLOCK_COLLISION.invoker().onCollide(thread, element, block, impulse);
+
+                if (ElementCollisionEvents.hasResolvedBlockCollisionListeners()) {
+                    BlockPos blockPos = location == null ? block.getBlockPos() : block.resolve(location);
+                    ElementCollisionEvents.RESOLVED_BLOCK_COLLISION.invoker().onCollide(thread, element, block, blockPos, block.getBlockState(blockPos), impulse);
+                }
+            }
+        }
+
+        if (ElementCollisionEvents.hasImpactListeners() || ElementContactEvents.hasListeners()) {
+            int idA = bodyIds.getInt(objectA);
+            int idB = bodyIds.getInt(objectB);
+
+            if (idA >= 0 && idB >= 0) {
+                contacts.add(ContactBuffer.key(idA, idB), objectA, objectB, impulse, location);
+            }
+        }
+    }
+
+    /**
+     * Fires one impact event for each pair of bodies that touched during the step.
+     */
+    private void distributeImpacts() {
+        Executor thread = getThread().getParentExecutor();
+
+        for (int i = 0; i < contacts.size(); i++) {
+            PhysicsElement element = ((ElementRigidBody) contacts.getObjectA(i)).getElement();
+            PhysicsCollisionObject objectB = contacts.getObjectB(i);
+
+            if (objectB instanceof ElementRigidBody) {
+                ElementCollisionEvents.ELEMENT_IMPACT.invoker().onImpact(thread, element, ((ElementRigidBody) objectB).getElement(), contacts.getImpulse(i), contacts.getPeakImpulse(i));
+            } else {
+                BlockRigidBody block = (BlockRigidBody) objectB;
+                BlockPos blockPos = resolve(contacts, i);
+                ElementCollisionEvents.BLOCK_IMPACT.invoker().onImpact(thread, element, block, blockPos, block.getBlockState(blockPos), contacts.getImpulse(i), contacts.getPeakImpulse(i));
+            }
+        }
+    }
+
+    /**
+     * Fires the contact lifecycle events by comparing the pairs that touched during this
+     * step with the pairs that touched during the previous one. Bullet stops reporting
+     * pairs once they fall asleep, so those are carried over to the next step quietly.
+     * @see ElementContactEvents
+     */
+    private void distributeContacts() {
+        if (ElementContactEvents.hasListeners()) {
+            Executor thread = getThread().getParentExecutor();
+            boolean persist = ElementContactEvents.hasPersistListeners();
+
+            /* Begin and Persist */
+            for (int i = 0; i < contacts.size(); i++) {
+                if (!previousContacts.contains(contacts.getKey(i))) {
+                    fireContact(thread, contacts, i, ElementContactEvents.BLOCK_CONTACT_BEGIN, ElementContactEvents.ELEMENT_CONTACT_BEGIN);
+                } else if (persist) {
+                    fireContact(thread, contacts, i, ElementContactEvents.BLOCK_CONTACT_PERSIST, ElementContactEvents.ELEMENT_CONTACT_PERSIST);
+                }
+            }
+
+            /* End */
+            for (int i = 0; i < previousContacts.size(); i++) {
+                long key = previousContacts.getKey(i);
+
+                if (!contacts.contains(key)) {
+                    PhysicsCollisionObject objectA = previousContacts.getObjectA(i);
+                    PhysicsCollisionObject objectB = previousContacts.getObjectB(i);
+
+                    if (objectA.isInWorld() && objectB.isInWorld() && !objectA.isActive() &&
+                            (objectB instanceof BlockRigidBody || !objectB.isActive())) {
+                        contacts.add(key, objectA, objectB, 0, previousContacts.getLocation(i, getThread().getScratch().vector(6)));
+                    } else {
+                        fireContact(thread, previousContacts, i, ElementContactEvents.BLOCK_CONTACT_END, ElementContactEvents.ELEMENT_CONTACT_END);
+                    }
+                }
+            }
+        }
+
+        ContactBuffer swap = previousContacts;
+        previousContacts = contacts;
+        contacts = swap;
+        contacts.clear();
+    }
+
+    private void fireContact(Executor thread, ContactBuffer buffer, int slot, Event<ElementContactEvents.BlockContact> blockEvent, Event<ElementContactEvents.ElementContact> elementEvent) {
+        PhysicsElement element = ((ElementRigidBody) buffer.getObjectA(slot)).getElement();
+        PhysicsCollisionObject objectB = buffer.getObjectB(slot);
+
+        if (objectB instanceof ElementRigidBody) {
+            elementEvent.invoker().onContact(thread, element, ((ElementRigidBody) objectB).getElement());
+        } else {
+            BlockRigidBody block = (BlockRigidBody) objectB;
+            BlockPos blockPos = resolve(buffer, slot);
+            blockEvent.invoker().onContact(thread, element, block, blockPos, block.getBlockState(blockPos));
+        }
+    }
+
+    /**
+     * Works out which block was hit by the strongest contact in the given slot.
+     * This only differs from the body's own position for a {@link MergedRigidBody}.
+     */
+    private BlockPos resolve(ContactBuffer buffer, int slot) {
+        BlockRigidBody block = (BlockRigidBody) buffer.getObjectB(slot);
+        Vector3f location = buffer.getLocation(slot, getThread().getScratch().vector(6));
+        return location == null ? block.getBlockPos() : block.resolve(location);
+    }
+
+    /**
+     * Installs this space as its own collision listener only while {@link ElementCollisionEvents}
+     * or {@link ElementContactEvents} has listeners, so that {@link MinecraftSpace#collision}
+     * is only called while something is listening.
+     */
+    private void updateCollisionListener() {
+        boolean listen = ElementCollisionEvents.hasListeners() || ElementContactEvents.hasListeners();
+
+        if (listen != listening) {
+            if (listen) {
+                addCollisionListener(this);
+            } else {
+                removeCollisionListener(this);
+            }
 
-        /* Element on Element */
-        if (event.getObjectA() instanceof ElementRigidBody && event.getObjectB() instanceof ElementRigidBody) {
-            PhysicsElement element1 = ((ElementRigidBody) event.getObjectA()).getElement();
-            PhysicsElement element2 = ((ElementRigidBody) event.getObjectB()).getElement();
-            ElementCollisionEvents.ELEMENT_COLLISION.invoker().onCollide(thread, element1, element2, impulse);
-
-        /* Block on Element */
-        } else if (event.getObjectA() instanceof BlockRigidBody && event.getObjectB() instanceof ElementRigidBody) {
-            BlockRigidBody block = (BlockRigidBody) event.getObjectA();
-            PhysicsElement element = ((ElementRigidBody) event.getObjectB()).getElement();
-            ElementCollisionEvents.BLOCK_COLLISION.invoker().onCollide(thread, element, block, impulse);
-
-        /* Element on Block */
-        } else if (event.getObjectA() instanceof ElementRigidBody && event.getObjectB() instanceof BlockRigidBody) {
-            BlockRigidBody block = (BlockRigidBody) event.getObjectB();
-            PhysicsElement element = ((ElementRigidBody) event.getObjectA()).getElement();
-            ElementCollisionEvents.BLOCK_COLLISION.invoker().onCollide(thread, element, block, impulse);
+            listening = listen;
         }
     }
 }
@@ -18,6 +18,7 @@ import org.jetbrains.annotations.Nullable;
 public class BlockRigidBody extends PhysicsRigidBody implements Debuggable {
     private final BlockState blockState;
     private final BlockPos blockPos;
+    private long generation;
 
     public BlockRigidBody(BlockState blockState, BlockPos blockPos, @Nullable CollisionShape shape, float friction, float restitution) {
         super(shape == null ? new BoundingBoxShape(new Box(-0.5, -0.5, -0.5, 1, 1, 1)) : shape, PhysicsRigidBody.massForStatic);
@@ -36,6 +37,39 @@ public class BlockRigidBody extends PhysicsRigidBody implements Debuggable {
         return this.blockPos;
     }
 
+    /**
+     * Works out which block of this body the given contact point belongs to. Since this
+     * body is only one block, it's always {@link BlockRigidBody#getBlockPos()}.
+     * @param location a point within the block, in world space
+     * @return the position of the block
+     * @see MergedRigidBody
+     */
+    public BlockPos resolve(Vector3f location) {
+        return this.blockPos;
+    }
+
+    /**
+     * @param blockPos the position of the block
+     * @return the block at the given position, or null if it's outside of this body
+     */
+    @Nullable
+    public BlockState getBlockState(BlockPos blockPos) {
+        return this.blockPos.equals(blockPos) ? this.blockState : null;
+    }
+
+    /**
+     * Marks this body as still needed during the given {@link TerrainManager} generation.
+     * @param generation the current generation
+     * @see TerrainManager#purge()
+     */
+    public void setGeneration(long generation) {
+        this.generation = generation;
+    }
+
+    public long getGeneration() {
+        return this.generation;
+    }
+
     @Override
     public Vector3f getOutlineColor() {
         return new Vector3f(1, 0, 1);
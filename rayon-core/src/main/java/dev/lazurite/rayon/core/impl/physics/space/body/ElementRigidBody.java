@@ -18,6 +18,7 @@ import net.minecraft.entity.LivingEntity;
 import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.entity.vehicle.BoatEntity;
 import net.minecraft.entity.vehicle.MinecartEntity;
+import net.minecraft.util.math.Box;
 import org.jetbrains.annotations.Nullable;
 
 /**
@@ -43,7 +44,7 @@ import org.jetbrains.annotations.Nullable;
  */
 public class ElementRigidBody extends PhysicsRigidBody implements TerrainLoading, Debuggable {
     private final PhysicsElement element;
-    private final MinecraftSpace space;
+    private volatile MinecraftSpace space;
     private boolean propertiesDirty;
     private int envLoadDistance;
     private float dragCoefficient;
@@ -55,7 +56,12 @@ public class ElementRigidBody extends PhysicsRigidBody implements TerrainLoading
 
     private PlayerEntity priorityPlayer;
     private final Frame frame = new Frame();
+    private final Vector3f frameLocation = new Vector3f();
+    private final Quaternion frameRotation = new Quaternion();
+    private final BoundingBox frameBox = new BoundingBox();
     private Clump clump;
+    private volatile Snapshot snapshot;
+    private volatile Box sleepBox;
 
     public ElementRigidBody(PhysicsElement element, MinecraftSpace space, CollisionShape shape, float mass, float dragCoefficient, float friction, float restitution) {
         super(shape, mass);
@@ -77,7 +83,7 @@ public class ElementRigidBody extends PhysicsRigidBody implements TerrainLoading
      * @param entity the element to base this body around
      */
     public ElementRigidBody(Entity entity) {
-        this((PhysicsElement) entity, MinecraftSpace.get(entity.getEntityWorld()), new BoundingBoxShape(entity.getBoundingBox()));
+        this((PhysicsElement) entity, MinecraftSpace.getIfPresent(entity.getEntityWorld()), new BoundingBoxShape(entity.getBoundingBox()));
     }
 
     /**
@@ -99,6 +105,15 @@ public class ElementRigidBody extends PhysicsRigidBody implements TerrainLoading
         return this.element;
     }
 
+    /**
+     * Moves the body over to a new space. Called by {@link MinecraftSpace#load} since the
+     * space may not have existed yet when the body was created, or may have since been released.
+     * @param space the space the body is being loaded into
+     */
+    public void setSpace(MinecraftSpace space) {
+        this.space = space;
+    }
+
     public MinecraftSpace getSpace() {
         return this.space;
     }
@@ -111,11 +126,30 @@ public class ElementRigidBody extends PhysicsRigidBody implements TerrainLoading
         return this.propertiesDirty;
     }
 
+    /**
+     * Updates the frame by reading from the native body. The values are read into
+     * storage owned by this body since the {@link Frame} copies them anyway.
+     * @return the updated {@link Frame}
+     */
     public Frame updateFrame() {
-        getFrame().from(getFrame(),
-                getPhysicsLocation(new Vector3f()),
-                getPhysicsRotation(new Quaternion()),
-                getCollisionShape().boundingBox(new Vector3f(), new Quaternion(), new BoundingBox()));
+        return updateFrame(
+                getPhysicsLocation(frameLocation),
+                getPhysicsRotation(frameRotation),
+                getCollisionShape().boundingBox(Vector3f.ZERO, Quaternion.IDENTITY, frameBox));
+    }
+
+    /**
+     * Updates the frame using a published {@link Snapshot} instead of reading from the
+     * native body. Safe to call while the physics thread is stepping.
+     * @param snapshot the snapshot to update from
+     * @return the updated {@link Frame}
+     */
+    public Frame updateFrame(Snapshot snapshot) {
+        return updateFrame(snapshot.getLocation(), snapshot.getRotation(), snapshot.getBox());
+    }
+
+    private Frame updateFrame(Vector3f location, Quaternion rotation, BoundingBox box) {
+        getFrame().from(getFrame(), location, rotation, box);
 
         if (shouldResetFrame) {
             getFrame().reset();
@@ -133,6 +167,43 @@ public class ElementRigidBody extends PhysicsRigidBody implements TerrainLoading
         return this.frame;
     }
 
+    /**
+     * Captures the current state of the body so that it can be read from the main
+     * thread while the next step runs. Should only be called on the physics thread.
+     * @see MinecraftSpace#isPipelined()
+     */
+    public void publishSnapshot() {
+        this.snapshot = new Snapshot(
+                getPhysicsLocation(new Vector3f()),
+                getPhysicsRotation(new Quaternion()),
+                getCollisionShape().boundingBox(new Vector3f(), new Quaternion(), new BoundingBox()),
+                boundingBox(new BoundingBox()));
+    }
+
+    @Nullable
+    public Snapshot getSnapshot() {
+        return this.snapshot;
+    }
+
+    /**
+     * Marks the body as asleep within the given bounds, or awake if null. While asleep,
+     * {@link MinecraftSpace#step} skips the body unless something wakes it up.
+     * Should only be called on the physics thread.
+     * @param sleepBox the bounds of the body when it fell asleep
+     */
+    public void setSleepBox(@Nullable Box sleepBox) {
+        this.sleepBox = sleepBox;
+    }
+
+    @Nullable
+    public Box getSleepBox() {
+        return this.sleepBox;
+    }
+
+    public boolean isSleeping() {
+        return this.sleepBox != null;
+    }
+
     @Override
     public Clump getClump() {
         return this.clump;
@@ -250,4 +321,38 @@ public class ElementRigidBody extends PhysicsRigidBody implements TerrainLoading
     public boolean shouldDoEntityLoading() {
         return this.doEntityLoading;
     }
+
+    /**
+     * The state of an {@link ElementRigidBody} at the end of a step. None
+     * of the contained objects are modified after they are published.
+     */
+    public static class Snapshot {
+        private final Vector3f location;
+        private final Quaternion rotation;
+        private final BoundingBox box;
+        private final BoundingBox worldBox;
+
+        public Snapshot(Vector3f location, Quaternion rotation, BoundingBox box, BoundingBox worldBox) {
+            this.location = location;
+            this.rotation = rotation;
+            this.box = box;
+            this.worldBox = worldBox;
+        }
+
+        public Vector3f getLocation() {
+            return this.location;
+        }
+
+        public Quaternion getRotation() {
+            return this.rotation;
+        }
+
+        public BoundingBox getBox() {
+            return this.box;
+        }
+
+        public BoundingBox getWorldBox() {
+            return this.worldBox;
+        }
+    }
 }
@@ -0,0 +1,92 @@
+package dev.lazurite.rayon.core.impl.physics.space.body;
+
+import com.jme3.bullet.collision.shapes.CollisionShape;
+import com.jme3.math.Vector3f;
+import dev.lazurite.rayon.core.impl.physics.space.MinecraftSpace;
+import dev.lazurite.rayon.core.impl.physics.space.environment.TerrainSection;
+import net.minecraft.block.BlockState;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.MathHelper;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A static {@link BlockRigidBody} which covers a whole box of blocks at once instead of just one.
+ * Since there is more than one block, {@link MergedRigidBody#getBlockPos()} and {@link MergedRigidBody#getBlockState()}
+ * only describe the lowest corner of the box. The block that was actually hit is worked out from each contact point
+ * using {@link MergedRigidBody#resolve}, and {@link MinecraftSpace} passes it along with every collision, impact
+ * or contact event involving this body. Nothing about a hit is stored in the body itself.
+ * @see TerrainSection
+ */
+public class MergedRigidBody extends BlockRigidBody {
+    private final BlockPos min;
+    private final int sizeX;
+    private final int sizeY;
+    private final int sizeZ;
+    private final BlockState[] blockStates;
+
+    /**
+     * @param min the lowest corner of the box
+     * @param sizeX the width of the box in blocks
+     * @param sizeY the height of the box in blocks
+     * @param sizeZ the depth of the box in blocks
+     * @param blockStates every block within the box, ordered by x, then z, then y
+     * @param shape the shape of the body, centered on the middle of the box
+     * @param friction the friction of the body
+     * @param restitution the restitution of the body
+     */
+    public MergedRigidBody(BlockPos min, int sizeX, int sizeY, int sizeZ, BlockState[] blockStates, CollisionShape shape, float friction, float restitution) {
+        super(blockStates[0], min, shape, friction, restitution);
+        this.min = min;
+        this.sizeX = sizeX;
+        this.sizeY = sizeY;
+        this.sizeZ = sizeZ;
+        this.blockStates = blockStates;
+        this.setPhysicsLocation(new Vector3f(min.getX() + sizeX / 2.0f, min.getY() + sizeY / 2.0f, min.getZ() + sizeZ / 2.0f));
+    }
+
+    /**
+     * Picks the block containing the given point, or the nearest one if it's just outside of the box.
+     * @param location a point within the block, in world space
+     * @return the position of the block
+     */
+    @Override
+    public BlockPos resolve(Vector3f location) {
+        return min.add(
+                MathHelper.clamp(MathHelper.floor(location.x) - min.getX(), 0, sizeX - 1),
+                MathHelper.clamp(MathHelper.floor(location.y) - min.getY(), 0, sizeY - 1),
+                MathHelper.clamp(MathHelper.floor(location.z) - min.getZ(), 0, sizeZ - 1));
+    }
+
+    @Override
+    @Nullable
+    public BlockState getBlockState(BlockPos blockPos) {
+        if (!contains(blockPos)) {
+            return null;
+        }
+
+        int x = blockPos.getX() - min.getX();
+        int y = blockPos.getY() - min.getY();
+        int z = blockPos.getZ() - min.getZ();
+        return blockStates[(y * sizeZ + z) * sizeX + x];
+    }
+
+    public boolean contains(BlockPos blockPos) {
+        return blockPos.getX() >= min.getX() && blockPos.getX() < min.getX() + sizeX &&
+                blockPos.getY() >= min.getY() && blockPos.getY() < min.getY() + sizeY &&
+                blockPos.getZ() >= min.getZ() && blockPos.getZ() < min.getZ() + sizeZ;
+    }
+
+    public BlockPos getMin() {
+        return this.min;
+    }
+
+    @Override
+    public Vector3f getOutlineColor() {
+        return new Vector3f(0.5f, 0, 1);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return this == obj;
+    }
+}
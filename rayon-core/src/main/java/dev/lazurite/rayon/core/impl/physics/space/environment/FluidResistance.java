@@ -0,0 +1,196 @@
+package dev.lazurite.rayon.core.impl.physics.space.environment;
+
+import com.jme3.bounding.BoundingBox;
+import com.jme3.math.Vector3f;
+import dev.lazurite.rayon.core.impl.physics.space.MinecraftSpace;
+import dev.lazurite.rayon.core.impl.physics.space.body.ElementRigidBody;
+import dev.lazurite.rayon.core.impl.physics.util.thread.Scratch;
+import dev.lazurite.rayon.core.impl.physics.util.thread.TimestepManager;
+import it.unimi.dsi.fastutil.longs.Long2IntMap;
+import it.unimi.dsi.fastutil.longs.Long2IntMaps;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import net.minecraft.fluid.FluidState;
+import net.minecraft.tag.FluidTags;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.world.BlockView;
+
+import java.util.Arrays;
+
+/**
+ * The drag stage of {@link MinecraftSpace#step}. Each {@link ElementRigidBody} is gathered into a set
+ * of primitive arrays first, then the air, water and lava drag of every body is calculated in one pass
+ * and the forces are written back afterwards. Which fluid a body is in is sampled from the block at the
+ * center of its bounding box, and samples are cached for {@link FluidResistance#SAMPLE_LIFETIME} steps.
+ * Should only be used on the physics thread.
+ */
+public final class FluidResistance {
+    public static final int AIR = 0;
+    public static final int WATER = 1;
+    public static final int LAVA = 2;
+
+    /** The number of steps a fluid sample is reused for before being read from the world again. */
+    public static final int SAMPLE_LIFETIME = 20;
+
+    private final MinecraftSpace space;
+    private final Long2IntOpenHashMap samples = new Long2IntOpenHashMap();
+    private final BlockPos.Mutable blockPos = new BlockPos.Mutable();
+    private final float[] densities = new float[3];
+    private int steps;
+
+    private int size;
+    private ElementRigidBody[] bodies = new ElementRigidBody[16];
+    private float[] velocityX = new float[16];
+    private float[] velocityY = new float[16];
+    private float[] velocityZ = new float[16];
+    private float[] centerX = new float[16];
+    private float[] centerY = new float[16];
+    private float[] centerZ = new float[16];
+    private float[] extentSquared = new float[16];
+    private float[] dragCoefficient = new float[16];
+    private float[] mass = new float[16];
+
+    public FluidResistance(MinecraftSpace space) {
+        this.space = space;
+        this.samples.defaultReturnValue(-1);
+    }
+
+    /**
+     * Reads the velocity and bounds of the given body for the next call to {@link FluidResistance#apply}.
+     * Bodies that are asleep are ignored since they aren't moving.
+     * @param rigidBody the body to gather
+     */
+    public void add(ElementRigidBody rigidBody) {
+        if (!rigidBody.isActive()) {
+            return;
+        }
+
+        if (size == bodies.length) {
+            grow();
+        }
+
+        Scratch scratch = space.getThread().getScratch();
+        Vector3f velocity = rigidBody.getLinearVelocity(scratch.vector(0));
+        BoundingBox box = rigidBody.boundingBox(scratch.box(0));
+        Vector3f center = box.getCenter(scratch.vector(1));
+
+        bodies[size] = rigidBody;
+        velocityX[size] = velocity.x;
+        velocityY[size] = velocity.y;
+        velocityZ[size] = velocity.z;
+        centerX[size] = center.x;
+        centerY[size] = center.y;
+        centerZ[size] = center.z;
+        extentSquared[size] = box.getXExtent() * box.getXExtent() + box.getYExtent() * box.getYExtent() + box.getZExtent() * box.getZExtent();
+        dragCoefficient[size] = rigidBody.getDragCoefficient();
+        mass[size] = rigidBody.getMass();
+        ++size;
+    }
+
+    /**
+     * Calculates and applies the drag force of every gathered body, then clears them. The force is
+     * limited so that it can never reverse a body's direction within a single step, which would
+     * otherwise happen to fast bodies entering dense fluids such as lava.
+     * @param minSpeedSquared bodies moving slower than this are skipped
+     */
+    public void apply(float minSpeedSquared) {
+        densities[AIR] = space.getAirDensity();
+        densities[WATER] = space.getWaterDensity();
+        densities[LAVA] = space.getLavaDensity();
+        Vector3f force = space.getThread().getScratch().vector(0);
+        ++steps;
+
+        for (int i = 0; i < size; i++) {
+            float speedSquared = velocityX[i] * velocityX[i] + velocityY[i] * velocityY[i] + velocityZ[i] * velocityZ[i];
+
+            if (speedSquared < minSpeedSquared) {
+                continue;
+            }
+
+            float area = extentSquared[i] * extentSquared[i];
+            float k = (densities[getFluid(centerX[i], centerY[i], centerZ[i])] * dragCoefficient[i] * area) / 2.0f;
+            float scale = Math.min(speedSquared * k, mass[i] / TimestepManager.STEP);
+            force.set(velocityX[i], velocityY[i], velocityZ[i]).multLocal(-scale);
+
+            if (Float.isFinite(force.lengthSquared()) && force.lengthSquared() > 0.1f) {
+                bodies[i].applyCentralForce(force);
+            }
+        }
+
+        Arrays.fill(bodies, 0, size, null);
+        size = 0;
+
+        if (steps % SAMPLE_LIFETIME == 0) {
+            evict();
+        }
+    }
+
+    /**
+     * Gets which fluid the given point is in, using the cached sample when it's recent enough.
+     * @return {@link FluidResistance#AIR}, {@link FluidResistance#WATER} or {@link FluidResistance#LAVA}
+     */
+    public int getFluid(float x, float y, float z) {
+        int blockX = MathHelper.floor(x);
+        int blockY = MathHelper.floor(y);
+        int blockZ = MathHelper.floor(z);
+        long key = BlockPos.asLong(blockX, blockY, blockZ);
+        int sample = samples.get(key);
+
+        if (sample >= 0 && steps - (sample >> 2) < SAMPLE_LIFETIME) {
+            return sample & 3;
+        }
+
+        int fluid = AIR;
+        BlockView chunk = space.getWorld().getChunkManager().getChunk(blockX >> 4, blockZ >> 4);
+
+        if (chunk != null) {
+            FluidState state = chunk.getFluidState(blockPos.set(blockX, blockY, blockZ));
+
+            if (state.isIn(FluidTags.LAVA)) {
+                fluid = LAVA;
+            } else if (state.isIn(FluidTags.WATER)) {
+                fluid = WATER;
+            }
+        }
+
+        samples.put(key, steps << 2 | fluid);
+        return fluid;
+    }
+
+    /**
+     * Forgets the fluid sample at the given position, e.g. after the block there changes.
+     * @param blockPos the position to forget
+     */
+    public void invalidate(BlockPos blockPos) {
+        invalidate(blockPos.asLong());
+    }
+
+    public void invalidate(long blockPos) {
+        samples.remove(blockPos);
+    }
+
+    private void evict() {
+        ObjectIterator<Long2IntMap.Entry> iterator = Long2IntMaps.fastIterator(samples);
+
+        while (iterator.hasNext()) {
+            if (steps - (iterator.next().getIntValue() >> 2) >= SAMPLE_LIFETIME) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private void grow() {
+        int length = bodies.length * 2;
+        bodies = Arrays.copyOf(bodies, length);
+        velocityX = Arrays.copyOf(velocityX, length);
+        velocityY = Arrays.copyOf(velocityY, length);
+        velocityZ = Arrays.copyOf(velocityZ, length);
+        centerX = Arrays.copyOf(centerX, length);
+        centerY = Arrays.copyOf(centerY, length);
+        centerZ = Arrays.copyOf(centerZ, length);
+        extentSquared = Arrays.copyOf(extentSquared, length);
+        dragCoefficient = Arrays.copyOf(dragCoefficient, length);
+        mass = Arrays.copyOf(mass, length);
+    }
+}
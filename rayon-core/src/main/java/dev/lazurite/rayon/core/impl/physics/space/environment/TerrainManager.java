@@ -1,26 +1,36 @@
 package dev.lazurite.rayon.core.impl.physics.space.environment;
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 import com.jme3.bullet.collision.shapes.CollisionShape;
 import com.jme3.bullet.objects.PhysicsRigidBody;
 import com.jme3.math.Vector3f;
 import dev.lazurite.rayon.core.impl.RayonCoreCommon;
 import dev.lazurite.rayon.core.impl.physics.space.body.BlockRigidBody;
+import dev.lazurite.rayon.core.impl.physics.space.body.MergedRigidBody;
 import dev.lazurite.rayon.core.impl.physics.space.body.shape.BoundingBoxShape;
 import dev.lazurite.rayon.core.impl.physics.space.body.shape.PatternShape;
 import dev.lazurite.rayon.core.impl.physics.space.MinecraftSpace;
 import dev.lazurite.rayon.core.impl.physics.space.body.type.TerrainLoading;
 import dev.lazurite.rayon.core.impl.physics.space.util.BlockProperties;
 import dev.lazurite.rayon.core.impl.physics.space.util.Clump;
+import dev.lazurite.rayon.core.impl.physics.space.util.ParallelTerrainScan;
+import dev.lazurite.rayon.core.impl.physics.space.util.TerrainRegion;
+import dev.lazurite.rayon.core.impl.util.config.Config;
 import dev.lazurite.transporter.api.Disassembler;
 import dev.lazurite.transporter.api.buffer.PatternBuffer;
 import dev.lazurite.transporter.api.pattern.TypedPattern;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
 import net.minecraft.block.*;
 import net.minecraft.block.entity.BlockEntity;
 import net.minecraft.client.util.math.MatrixStack;
 import net.minecraft.util.Identifier;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Box;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.util.math.MathHelper;
 import net.minecraft.util.registry.Registry;
 import net.minecraft.util.shape.VoxelShape;
 import net.minecraft.world.World;
@@ -31,15 +41,73 @@ import java.util.*;
  * This class is used primarily by {@link MinecraftSpace} in order
  * to load and unload blocks from the simulation. The reason not every block is loaded is
  * because it is too resource intensive to track thousands of blocks within the physics
- * simulation. Instead, only a set amount are made available within the world at a time.
+ * simulation. Instead, only a set amount are made available within the world at a time.<br>
+ * In {@link Mode#MERGED}, full cubes are loaded as larger merged boxes which are cached per {@link TerrainSection}.
+ * In {@link Mode#SECTIONS}, whole sections are loaded as compound bodies without scanning any blocks per step.
  * @see MinecraftSpace
  */
 public final class TerrainManager {
-    private final List<BlockRigidBody> toKeep = Lists.newArrayList();
+    /** How many generations a cached section is kept for after it was last loaded (ten seconds). */
+    private static final int SECTION_LIFETIME = 200;
+
+    private final List<BlockRigidBody> toRemove = Lists.newArrayList();
+    private final Long2ObjectMap<TerrainSection> sections = new Long2ObjectOpenHashMap<>();
+    private final Long2ObjectMap<BlockRigidBody> resolved = new Long2ObjectOpenHashMap<>();
+    private final TerrainRegion region = new TerrainRegion();
     private final MinecraftSpace space;
+    private final Mode mode;
+    private long generation = 1;
+
+    public enum Mode {
+        /** Every block gets its own {@link BlockRigidBody}. */
+        BLOCKS,
+        /** Neighbouring full cubes are merged into {@link MergedRigidBody}s, everything else is loaded block by block. */
+        MERGED,
+        /**
+         * Each section near an element is loaded as one compound {@link MergedRigidBody} per material. Blocks
+         * which aren't full cubes are built out of the boxes of their collision shape, so they never get the
+         * pattern shapes {@link Mode#BLOCKS} and {@link Mode#MERGED} use on the client. Collision events report
+         * the section's body, so listeners should use the resolved block instead of {@link BlockRigidBody#getBlockPos()}.
+         */
+        SECTIONS
+    }
 
     public TerrainManager(MinecraftSpace space) {
         this.space = space;
+        this.mode = Config.getTerrainMode();
+    }
+
+    /**
+     * Loads the block areas of every given element at once. Their areas are combined into a
+     * {@link TerrainRegion} first so that blocks shared by more than one element are only read
+     * from the world once, and each element then gets its own {@link Clump} out of the result.
+     * If parallel terrain scanning is enabled, each group of overlapping areas is scanned the same
+     * way on a worker using {@link ParallelTerrainScan}.
+     * @param terrainBodies the rigid bodies to be loaded
+     */
+    public void load(List<TerrainLoading> terrainBodies) {
+        if (mode == Mode.SECTIONS || terrainBodies.size() == 1) {
+            terrainBodies.forEach(terrainBody -> load(terrainBody, getLoadBox(terrainBody)));
+        } else if (Config.isParallelTerrainScanEnabled()) {
+            Map<TerrainLoading, Clump> clumps = ParallelTerrainScan.scan(space.getWorld(), terrainBodies);
+            terrainBodies.forEach(terrainBody -> load(terrainBody, clumps.get(terrainBody)));
+        } else if (!terrainBodies.isEmpty()) {
+            List<Box> boxes = Lists.newArrayList();
+
+            for (TerrainLoading terrainBody : terrainBodies) {
+                Box box = getLoadBox(terrainBody);
+                boxes.add(box);
+                region.add(box);
+            }
+
+            region.scan(space.getWorld());
+
+            for (int i = 0; i < terrainBodies.size(); i++) {
+                load(terrainBodies.get(i), new Clump(region, boxes.get(i)));
+            }
+
+            region.clear();
+        }
     }
 
     /**
@@ -50,52 +118,85 @@ public final class TerrainManager {
      * @param box the {@link Box} area around the element to search for blocks within
      */
     public void load(TerrainLoading terrainLoading, Box box) {
+        if (mode == Mode.SECTIONS) {
+            loadSections(terrainLoading, box);
+        } else {
+            load(terrainLoading, new Clump(space.getWorld(), box));
+        }
+    }
+
+    /**
+     * Loads an already scanned {@link Clump} into the physics simulation. This allows
+     * the (read-only) block scan to happen elsewhere, such as on a {@link ParallelTerrainScan} worker.
+     * @param terrainLoading the rigid body to be loaded
+     * @param clump the scanned blocks around the element
+     * @see TerrainManager#load(TerrainLoading, Box)
+     */
+    public void load(TerrainLoading terrainLoading, Clump clump) {
+        if (mode == Mode.SECTIONS) {
+            loadSections(terrainLoading, getLoadBox(terrainLoading));
+            return;
+        }
+
         PhysicsRigidBody rigidBody = (PhysicsRigidBody) terrainLoading;
         World world = space.getWorld();
-        Clump clump = new Clump(world, box);
+        List<BlockRigidBody> loaded = Lists.newArrayList();
+        Set<MergedRigidBody> merged = Sets.newIdentityHashSet();
 
         if (rigidBody.isActive()) {
             clump.getData().forEach(blockInfo -> {
                 BlockPos blockPos = blockInfo.getBlockPos();
                 BlockState blockState = blockInfo.getBlockState();
+                long key = blockPos.asLong();
 
-                float friction = 0.5f; // 1.0f
-                float restitution = 0.25f;
-                boolean collidable = !blockState.getBlock().canMobSpawnInside();
-
-                if (blockState.getBlock() instanceof IceBlock) {
-                    friction = 0.05F;
-                } else if (blockState.getBlock() instanceof SlimeBlock) {
-                    friction = 3.0F;
-                    restitution = 3.0F;
-                } else if (blockState.getBlock() instanceof HoneyBlock || blockState.getBlock() instanceof SoulSandBlock) {
-                    friction = 3.0F;
+                /* Another element already loaded this block during this step */
+                if (resolved.containsKey(key)) {
+                    BlockRigidBody body = resolved.get(key);
+
+                    if (body != null && (!(body instanceof MergedRigidBody) || merged.add((MergedRigidBody) body))) {
+                        loaded.add(body);
+                    }
+
+                    return;
                 }
 
-                /* Apply custom block properties */
-                Identifier blockId = Registry.BLOCK.getId(blockState.getBlock());
-                if (!blockId.getNamespace().equals("minecraft")) {
-                    BlockProperties props = RayonCoreCommon.getBlockProps().get(blockId);
+                resolved.put(key, null);
 
-                    if (props != null) {
-                        collidable = props.isCollidable();
+                /* Use the merged box covering the block if there is one */
+                if (mode == Mode.MERGED) {
+                    TerrainSection section = getSection(ChunkSectionPos.asLong(blockPos.getX() >> 4, blockPos.getY() >> 4, blockPos.getZ() >> 4));
 
-                        if (props.getFriction() >= 0) {
-                            friction = props.getFriction();
-                        }
+                    if (section != null) {
+                        MergedRigidBody body = section.getBody(blockPos);
 
-                        if (props.getRestitution() >= 0) {
-                            restitution = props.getRestitution();
+                        if (body != null) {
+                            resolved.put(key, body);
+
+                            if (merged.add(body)) {
+                                if (!body.isInWorld()) {
+                                    space.addCollisionObject(body);
+                                }
+
+                                body.setGeneration(generation);
+                                loaded.add(body);
+                            }
+
+                            return;
                         }
                     }
                 }
 
+                BlockProperties properties = getBlockProperties(blockState);
+                float friction = properties.getFriction();
+                float restitution = properties.getRestitution();
+
                 /* Check if the block is solid or not */
-                if (collidable) {
-                    BlockRigidBody body = findBlockAtPos(space, blockPos);
+                if (properties.isCollidable()) {
+                    BlockRigidBody body = space.getBlockRigidBody(blockPos);
+                    boolean added = body != null;
 
                     /* Make a new rigid body if there isn't already one */
-                    if (body == null) {
+                    if (!added) {
                         VoxelShape voxel = blockState.getCollisionShape(world, blockPos);
                         CollisionShape shape;
 
@@ -168,15 +269,19 @@ public final class TerrainManager {
                         }
                     }
 
-                    if (!space.getRigidBodyList().contains(body)) {
+                    if (!added) {
                         space.addCollisionObject(body);
                     }
 
-                    toKeep.add(body);
+                    body.setGeneration(generation);
+                    resolved.put(key, body);
+                    loaded.add(body);
                 }
             });
         }
 
+        clump.setBodies(loaded);
+
         if (!clump.equals(terrainLoading.getClump())) {
             rigidBody.activate();
         }
@@ -184,36 +289,243 @@ public final class TerrainManager {
         terrainLoading.setClump(clump);
     }
 
+    /**
+     * Loads every {@link TerrainSection} touching the given area as a whole. Sections are only
+     * scanned the first time they're needed, so loading one that's already cached is just a lookup.
+     * @param terrainLoading the rigid body to be loaded
+     * @param box the {@link Box} area around the element
+     * @see Mode#SECTIONS
+     */
+    private void loadSections(TerrainLoading terrainLoading, Box box) {
+        PhysicsRigidBody rigidBody = (PhysicsRigidBody) terrainLoading;
+        List<BlockRigidBody> loaded = Lists.newArrayList();
+
+        if (rigidBody.isActive()) {
+            int minY = Math.max((int) box.minY >> 4, 0);
+            int maxY = Math.min((MathHelper.ceil(box.maxY) - 1) >> 4, (space.getWorld().getHeight() - 1) >> 4);
+
+            for (int x = (int) box.minX >> 4; x <= (MathHelper.ceil(box.maxX) - 1) >> 4; x++) {
+                for (int y = minY; y <= maxY; y++) {
+                    for (int z = (int) box.minZ >> 4; z <= (MathHelper.ceil(box.maxZ) - 1) >> 4; z++) {
+                        TerrainSection section = getSection(ChunkSectionPos.asLong(x, y, z));
+
+                        if (section != null) {
+                            for (MergedRigidBody body : section.getBodies()) {
+                                if (!body.isInWorld()) {
+                                    space.addCollisionObject(body);
+                                }
+
+                                body.setGeneration(generation);
+                                loaded.add(body);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        Clump clump = new Clump();
+        clump.setBodies(loaded);
+
+        /* There's no block data to compare, so compare the bodies instead */
+        if (terrainLoading.getClump() == null || !loaded.equals(terrainLoading.getClump().getBodies())) {
+            rigidBody.activate();
+        }
+
+        terrainLoading.setClump(clump);
+    }
+
+    /**
+     * Keeps the blocks from the body's previous {@link TerrainManager#load} call in the
+     * simulation without scanning the world again. Used when terrain loading is
+     * throttled or skipped for a body during this step.
+     * @param terrainLoading the rigid body whose blocks should be kept
+     */
+    public void keep(TerrainLoading terrainLoading) {
+        if (terrainLoading.getClump() != null) {
+            for (BlockRigidBody body : terrainLoading.getClump().getBodies()) {
+                body.setGeneration(generation);
+            }
+        }
+    }
+
     /**
      * Prune out any unnecessary blocks from the world during each call
      * to {@link MinecraftSpace#step}. The purpose is to prevent
      * any trailing or residual blocks from being left over from a
-     * previous {@link TerrainManager#load} call.
+     * previous {@link TerrainManager#load} call.<br>
+     * Every body that is loaded or kept is stamped with the current generation, so any
+     * body with an older stamp is swept here in a single pass before the generation moves on.<br>
      * <b>Note:</b> This method should only be called after every element
      * has been passed through the loading process. Otherwise, blocks will
      * be removed from the simulation prematurely and cause you a headache.
      * @see TerrainManager#load
      */
     public void purge() {
-        List<BlockRigidBody> toRemove = Lists.newArrayList();
-
-        space.getRigidBodiesByClass(BlockRigidBody.class).forEach(body -> {
-            if (!toKeep.contains(body)) {
+        for (BlockRigidBody body : space.getRigidBodiesByClass(BlockRigidBody.class)) {
+            if (body.getGeneration() != generation) {
                 toRemove.add(body);
             }
-        });
+        }
 
         toRemove.forEach(space::removeCollisionObject);
-        toKeep.clear();
+        toRemove.clear();
+        resolved.clear();
+
+        /* Forget sections that haven't been needed in a while */
+        ObjectIterator<TerrainSection> iterator = sections.values().iterator();
+
+        while (iterator.hasNext()) {
+            if (generation - iterator.next().getLastUsed() > SECTION_LIFETIME) {
+                iterator.remove();
+            }
+        }
+
+        ++generation;
     }
 
-    public static BlockRigidBody findBlockAtPos(MinecraftSpace space, BlockPos blockPos) {
-        for (BlockRigidBody body : space.getRigidBodiesByClass(BlockRigidBody.class)) {
-            if (body.getBlockPos().equals(blockPos)) {
+    /**
+     * Drops the cached {@link TerrainSection} containing the given block, along with any of
+     * its merged bodies that are in the simulation, so that it's scanned again the next time
+     * it's needed. Must be called on the physics thread.
+     * @param blockPos the position of the block that changed, packed using {@link BlockPos#asLong()}
+     */
+    public void invalidate(long blockPos) {
+        TerrainSection section = sections.remove(ChunkSectionPos.asLong(
+                BlockPos.unpackLongX(blockPos) >> 4,
+                BlockPos.unpackLongY(blockPos) >> 4,
+                BlockPos.unpackLongZ(blockPos) >> 4));
+
+        if (section != null) {
+            for (MergedRigidBody body : section.getBodies()) {
+                if (body.isInWorld()) {
+                    space.removeCollisionObject(body);
+                }
+            }
+        }
+    }
+
+    /**
+     * Forgets every cached {@link TerrainSection} and scanned block. Used when
+     * the space is released so that nothing keeps its bodies reachable.
+     */
+    public void clear() {
+        sections.clear();
+        resolved.clear();
+        region.clear();
+    }
+
+    /**
+     * @return whether or not any {@link TerrainSection}s are cached, and so need to hear about block changes
+     */
+    public boolean hasSections() {
+        return !sections.isEmpty();
+    }
+
+    /**
+     * Gets the merged body covering the given block, but only if it's currently in the simulation.
+     * @param blockPos the position of the block, packed using {@link BlockPos#asLong()}
+     * @return the body, or null if there isn't one
+     */
+    public MergedRigidBody getMergedBody(long blockPos) {
+        TerrainSection section = sections.get(ChunkSectionPos.asLong(
+                BlockPos.unpackLongX(blockPos) >> 4,
+                BlockPos.unpackLongY(blockPos) >> 4,
+                BlockPos.unpackLongZ(blockPos) >> 4));
+
+        if (section != null) {
+            MergedRigidBody body = section.getBody(BlockPos.fromLong(blockPos));
+
+            if (body != null && body.isInWorld()) {
                 return body;
             }
         }
 
         return null;
     }
+
+    /**
+     * Gets the cached section, scanning it first if needed.
+     * @param sectionPos the section, packed using {@link ChunkSectionPos#asLong()}
+     * @return the section, or null if its chunk isn't loaded
+     */
+    private TerrainSection getSection(long sectionPos) {
+        TerrainSection section = sections.get(sectionPos);
+
+        if (section == null) {
+            section = TerrainSection.build(space.getWorld(), sectionPos, mode == Mode.SECTIONS);
+
+            if (section == null) {
+                return null;
+            }
+
+            sections.put(sectionPos, section);
+        }
+
+        section.setLastUsed(generation);
+        return section;
+    }
+
+    public Mode getMode() {
+        return this.mode;
+    }
+
+    /**
+     * Works out the friction, restitution and whether or not a block is collidable,
+     * including any custom {@link BlockProperties} registered by other mods.
+     * @param blockState the block
+     * @return the block's properties
+     */
+    public static BlockProperties getBlockProperties(BlockState blockState) {
+        float friction = 0.5f; // 1.0f
+        float restitution = 0.25f;
+        boolean collidable = !blockState.getBlock().canMobSpawnInside();
+
+        if (blockState.getBlock() instanceof IceBlock) {
+            friction = 0.05F;
+        } else if (blockState.getBlock() instanceof SlimeBlock) {
+            friction = 3.0F;
+            restitution = 3.0F;
+        } else if (blockState.getBlock() instanceof HoneyBlock || blockState.getBlock() instanceof SoulSandBlock) {
+            friction = 3.0F;
+        }
+
+        /* Apply custom block properties */
+        Identifier blockId = Registry.BLOCK.getId(blockState.getBlock());
+        if (!blockId.getNamespace().equals("minecraft")) {
+            BlockProperties props = RayonCoreCommon.getBlockProps().get(blockId);
+
+            if (props != null) {
+                collidable = props.isCollidable();
+
+                if (props.getFriction() >= 0) {
+                    friction = props.getFriction();
+                }
+
+                if (props.getRestitution() >= 0) {
+                    restitution = props.getRestitution();
+                }
+            }
+        }
+
+        return new BlockProperties(friction, restitution, collidable);
+    }
+
+    /**
+     * Calculates the area around the given body that blocks should be loaded within.
+     * @param terrainLoading the terrain loading body
+     * @return the {@link Box} area to search for blocks within
+     */
+    public static Box getLoadBox(TerrainLoading terrainLoading) {
+        Vector3f pos = ((PhysicsRigidBody) terrainLoading).getPhysicsLocation(new Vector3f());
+        return new Box(new BlockPos(pos.x, pos.y, pos.z)).expand(terrainLoading.getEnvironmentLoadDistance());
+    }
+
+    /**
+     * @deprecated use {@link MinecraftSpace#getBlockRigidBody(BlockPos)} instead
+     */
+    @Deprecated
+    public static BlockRigidBody findBlockAtPos(MinecraftSpace space, BlockPos blockPos) {
+        return space.getBlockRigidBody(blockPos);
+    }
 }
@@ -0,0 +1,242 @@
+package dev.lazurite.rayon.core.impl.physics.space.environment;
+
+import com.google.common.collect.Lists;
+import com.jme3.bullet.collision.shapes.CompoundCollisionShape;
+import com.jme3.math.Vector3f;
+import dev.lazurite.rayon.core.impl.physics.space.body.MergedRigidBody;
+import dev.lazurite.rayon.core.impl.physics.space.body.shape.BoundingBoxShape;
+import dev.lazurite.rayon.core.impl.physics.space.util.BlockProperties;
+import dev.lazurite.rayon.core.impl.physics.space.util.GreedyMesher;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Box;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.util.math.Vec3d;
+import net.minecraft.util.shape.VoxelShape;
+import net.minecraft.world.BlockView;
+import net.minecraft.world.World;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A 16x16x16 chunk section of terrain that has been scanned once and cached by the {@link TerrainManager}.
+ * Every collidable full cube in the section is greedy-merged with its neighbours into {@link MergedRigidBody}s,
+ * as long as they share the same friction and restitution. Everything else is left to be loaded block by block.<br>
+ * When built as a compound section, the merged boxes and the collision boxes of every other collidable block are
+ * instead put together into one {@link CompoundCollisionShape}, giving one static body per section per material.
+ * Each of those bodies shares the section's array of block states rather than copying its own part of it.
+ * @see TerrainManager.Mode#MERGED
+ * @see TerrainManager.Mode#SECTIONS
+ */
+public class TerrainSection {
+    public static final int SIZE = 16;
+
+    private final BlockPos origin;
+    private final BlockState[] blockStates = new BlockState[SIZE * SIZE * SIZE];
+    private final int[] owners = new int[SIZE * SIZE * SIZE];
+    private final List<MergedRigidBody> bodies = Lists.newArrayList();
+    private long lastUsed;
+
+    private TerrainSection(BlockPos origin) {
+        this.origin = origin;
+        Arrays.fill(owners, -1);
+    }
+
+    /**
+     * Scans and merges the given section.
+     * @param world the world to scan
+     * @param sectionPos the section, packed using {@link ChunkSectionPos#asLong()}
+     * @param compound whether to build one compound body per material instead of one body per merged box
+     * @return the section, or null if its chunk isn't loaded
+     */
+    @Nullable
+    public static TerrainSection build(World world, long sectionPos, boolean compound) {
+        int sectionX = ChunkSectionPos.unpackX(sectionPos);
+        int sectionY = ChunkSectionPos.unpackY(sectionPos);
+        int sectionZ = ChunkSectionPos.unpackZ(sectionPos);
+        BlockView chunk = world.getChunkManager().getChunk(sectionX, sectionZ);
+
+        if (chunk == null) {
+            return null;
+        }
+
+        TerrainSection section = new TerrainSection(new BlockPos(sectionX << 4, sectionY << 4, sectionZ << 4));
+        List<BlockProperties> materials = Lists.newArrayList();
+        int[] cells = new int[SIZE * SIZE * SIZE];
+        IntList partials = new IntArrayList();
+        BlockPos.Mutable blockPos = new BlockPos.Mutable();
+
+        for (int y = 0; y < SIZE; y++) {
+            for (int z = 0; z < SIZE; z++) {
+                for (int x = 0; x < SIZE; x++) {
+                    int index = GreedyMesher.index(x, y, z, SIZE);
+                    blockPos.set(section.origin.getX() + x, section.origin.getY() + y, section.origin.getZ() + z);
+                    BlockState blockState = chunk.getBlockState(blockPos);
+                    section.blockStates[index] = blockState;
+                    cells[index] = GreedyMesher.EMPTY;
+
+                    if (!blockState.isAir()) {
+                        BlockProperties properties = TerrainManager.getBlockProperties(blockState);
+
+                        if (properties.isCollidable()) {
+                            if (blockState.isFullCube(world, blockPos)) {
+                                cells[index] = getMaterial(materials, properties);
+                            } else if (compound) {
+                                partials.add(index);
+                                section.owners[index] = getMaterial(materials, properties);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        if (compound) {
+            buildCompound(world, section, materials, cells, partials);
+            return section;
+        }
+
+        for (GreedyMesher.Region region : GreedyMesher.mesh(cells, SIZE)) {
+            BlockState[] blockStates = new BlockState[region.getSizeX() * region.getSizeY() * region.getSizeZ()];
+            int owner = section.bodies.size();
+            int i = 0;
+
+            for (int y = region.getMinY(); y < region.getMinY() + region.getSizeY(); y++) {
+                for (int z = region.getMinZ(); z < region.getMinZ() + region.getSizeZ(); z++) {
+                    for (int x = region.getMinX(); x < region.getMinX() + region.getSizeX(); x++) {
+                        int index = GreedyMesher.index(x, y, z, SIZE);
+                        blockStates[i++] = section.blockStates[index];
+                        section.owners[index] = owner;
+                    }
+                }
+            }
+
+            BlockProperties material = materials.get(region.getMaterial());
+            section.bodies.add(new MergedRigidBody(
+                    section.origin.add(region.getMinX(), region.getMinY(), region.getMinZ()),
+                    region.getSizeX(), region.getSizeY(), region.getSizeZ(), blockStates,
+                    new BoundingBoxShape(new Box(0, 0, 0, region.getSizeX(), region.getSizeY(), region.getSizeZ())),
+                    material.getFriction(), material.getRestitution()));
+        }
+
+        return section;
+    }
+
+    /**
+     * Builds one {@link MergedRigidBody} covering the whole section for each material, so body
+     * indices line up with material indices. Children are placed relative to the section's center.
+     */
+    private static void buildCompound(World world, TerrainSection section, List<BlockProperties> materials, int[] cells, IntList partials) {
+        CompoundCollisionShape[] shapes = new CompoundCollisionShape[materials.size()];
+        float center = SIZE / 2.0f;
+
+        for (int i = 0; i < shapes.length; i++) {
+            shapes[i] = new CompoundCollisionShape();
+        }
+
+        for (GreedyMesher.Region region : GreedyMesher.mesh(cells, SIZE)) {
+            for (int y = region.getMinY(); y < region.getMinY() + region.getSizeY(); y++) {
+                for (int z = region.getMinZ(); z < region.getMinZ() + region.getSizeZ(); z++) {
+                    for (int x = region.getMinX(); x < region.getMinX() + region.getSizeX(); x++) {
+                        section.owners[GreedyMesher.index(x, y, z, SIZE)] = region.getMaterial();
+                    }
+                }
+            }
+
+            shapes[region.getMaterial()].addChildShape(
+                    new BoundingBoxShape(new Box(0, 0, 0, region.getSizeX(), region.getSizeY(), region.getSizeZ())),
+                    new Vector3f(
+                            region.getMinX() + region.getSizeX() / 2.0f - center,
+                            region.getMinY() + region.getSizeY() / 2.0f - center,
+                            region.getMinZ() + region.getSizeZ() / 2.0f - center));
+        }
+
+        BlockPos.Mutable blockPos = new BlockPos.Mutable();
+
+        for (int i = 0; i < partials.size(); i++) {
+            int index = partials.getInt(i);
+            int x = index & (SIZE - 1);
+            int z = (index >> 4) & (SIZE - 1);
+            int y = index >> 8;
+            blockPos.set(section.origin.getX() + x, section.origin.getY() + y, section.origin.getZ() + z);
+
+            VoxelShape voxel = section.blockStates[index].getCollisionShape(world, blockPos);
+            List<Box> boxes = voxel.isEmpty() ? Lists.newArrayList(new Box(0, 0, 0, 1, 1, 1)) : voxel.getBoundingBoxes();
+
+            /* One child per box of the block's collision shape, so e.g. stairs keep their step */
+            for (Box box : boxes) {
+                Vec3d boxCenter = box.getCenter();
+
+                shapes[section.owners[index]].addChildShape(new BoundingBoxShape(box), new Vector3f(
+                        x + (float) boxCenter.x - center,
+                        y + (float) boxCenter.y - center,
+                        z + (float) boxCenter.z - center));
+            }
+        }
+
+        for (int i = 0; i < shapes.length; i++) {
+            BlockProperties material = materials.get(i);
+            section.bodies.add(new MergedRigidBody(section.origin, SIZE, SIZE, SIZE, section.blockStates, shapes[i], material.getFriction(), material.getRestitution()));
+        }
+    }
+
+    private static int getMaterial(List<BlockProperties> materials, BlockProperties properties) {
+        for (int i = 0; i < materials.size(); i++) {
+            BlockProperties material = materials.get(i);
+
+            if (material.getFriction() == properties.getFriction() && material.getRestitution() == properties.getRestitution()) {
+                return i;
+            }
+        }
+
+        materials.add(properties);
+        return materials.size() - 1;
+    }
+
+    /**
+     * @param blockPos a position within this section
+     * @return the merged body covering the position, or null if the block isn't part of one
+     */
+    @Nullable
+    public MergedRigidBody getBody(BlockPos blockPos) {
+        int owner = owners[getIndex(blockPos)];
+        return owner < 0 ? null : bodies.get(owner);
+    }
+
+    /**
+     * @param blockPos a position within this section
+     * @return the block at the position when the section was scanned
+     */
+    public BlockState getBlockState(BlockPos blockPos) {
+        BlockState blockState = blockStates[getIndex(blockPos)];
+        return blockState == null ? Blocks.AIR.getDefaultState() : blockState;
+    }
+
+    public List<MergedRigidBody> getBodies() {
+        return this.bodies;
+    }
+
+    public BlockPos getOrigin() {
+        return this.origin;
+    }
+
+    public void setLastUsed(long generation) {
+        this.lastUsed = generation;
+    }
+
+    /**
+     * @return the last {@link TerrainManager} generation that loaded any part of this section
+     */
+    public long getLastUsed() {
+        return this.lastUsed;
+    }
+
+    private int getIndex(BlockPos blockPos) {
+        return GreedyMesher.index(blockPos.getX() & (SIZE - 1), blockPos.getY() & (SIZE - 1), blockPos.getZ() & (SIZE - 1), SIZE);
+    }
+}
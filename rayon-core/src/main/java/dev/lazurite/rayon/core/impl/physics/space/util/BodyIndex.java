@@ -0,0 +1,85 @@
+package dev.lazurite.rayon.core.impl.physics.space.util;
+
+import dev.lazurite.rayon.core.impl.physics.space.MinecraftSpace;
+import it.unimi.dsi.fastutil.objects.Reference2IntMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An incrementally maintained list of every body in a {@link MinecraftSpace} of a certain type.
+ * Bodies are added and removed as they enter and leave the space so that looking them up never
+ * requires a scan. The physics thread reads the live list while every other thread reads a copy
+ * which is only rebuilt after the contents have changed.
+ * @param <T> the type of body
+ * @see MinecraftSpace#getRigidBodiesByClass
+ */
+public class BodyIndex<T> {
+    private final Class<T> type;
+    private final List<T> bodies = new ArrayList<>();
+    private final List<T> view = Collections.unmodifiableList(bodies);
+    private final Reference2IntMap<T> positions = new Reference2IntOpenHashMap<>();
+    private volatile List<T> snapshot = Collections.emptyList();
+    private volatile boolean dirty;
+
+    public BodyIndex(Class<T> type) {
+        this.type = type;
+        this.positions.defaultReturnValue(-1);
+    }
+
+    public synchronized void add(Object body) {
+        if (type.isInstance(body)) {
+            T t = type.cast(body);
+
+            if (!positions.containsKey(t)) {
+                positions.put(t, bodies.size());
+                bodies.add(t);
+                dirty = true;
+            }
+        }
+    }
+
+    /**
+     * Removes the body by swapping the last body into its place.
+     * @param body the body to remove
+     */
+    public synchronized void remove(Object body) {
+        int index = positions.removeInt(body);
+
+        if (index >= 0) {
+            T last = bodies.remove(bodies.size() - 1);
+
+            if (index < bodies.size()) {
+                bodies.set(index, last);
+                positions.put(last, index);
+            }
+
+            dirty = true;
+        }
+    }
+
+    /**
+     * @return the live list of bodies. Only safe to use on the physics thread.
+     */
+    public List<T> getLive() {
+        return this.view;
+    }
+
+    /**
+     * @return an unmodifiable copy of the bodies which is safe to use from any thread
+     */
+    public List<T> getSnapshot() {
+        if (dirty) {
+            synchronized (this) {
+                if (dirty) {
+                    snapshot = Collections.unmodifiableList(new ArrayList<>(bodies));
+                    dirty = false;
+                }
+            }
+        }
+
+        return snapshot;
+    }
+}
@@ -0,0 +1,131 @@
+package dev.lazurite.rayon.core.impl.physics.space.util;
+
+import dev.lazurite.rayon.core.impl.physics.space.MinecraftSpace;
+import dev.lazurite.rayon.core.impl.util.supplier.entity.EntitySnapshot;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Box;
+import net.minecraft.util.math.MathHelper;
+
+import java.util.Arrays;
+
+/**
+ * A spatial hash of bounding boxes, laid out the same way as {@link EntitySnapshot}. Unlike
+ * the snapshot, it's meant to be cleared and filled again every step, so the bounds are
+ * kept in plain arrays which are reused instead of allocating a {@link Box} per entry.
+ * Boxes spanning too many cells are kept in a separate list and checked one by one.
+ * Should only be used by one thread at a time.
+ * @see MinecraftSpace#step
+ */
+public final class BoundsHash {
+    /* Cells are 4x4x4 blocks */
+    private static final int CELL_SHIFT = 2;
+
+    /* Boxes wider than this many cells along any axis aren't hashed */
+    private static final int MAX_CELLS = 8;
+
+    private final Long2IntOpenHashMap cells = new Long2IntOpenHashMap();
+    private final IntList oversized = new IntArrayList();
+    private float[] bounds = new float[16 * 6];
+    private int[] nodeEntries = new int[32];
+    private int[] nodeNext = new int[32];
+    private int entries;
+    private int nodes;
+
+    public BoundsHash() {
+        this.cells.defaultReturnValue(-1);
+    }
+
+    public void add(float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+        int index = entries++;
+
+        if (index * 6 == bounds.length) {
+            bounds = Arrays.copyOf(bounds, bounds.length * 2);
+        }
+
+        bounds[index * 6] = minX;
+        bounds[index * 6 + 1] = minY;
+        bounds[index * 6 + 2] = minZ;
+        bounds[index * 6 + 3] = maxX;
+        bounds[index * 6 + 4] = maxY;
+        bounds[index * 6 + 5] = maxZ;
+
+        if (cell(maxX) - cell(minX) >= MAX_CELLS || cell(maxY) - cell(minY) >= MAX_CELLS || cell(maxZ) - cell(minZ) >= MAX_CELLS) {
+            oversized.add(index);
+            return;
+        }
+
+        for (int x = cell(minX); x <= cell(maxX); x++) {
+            for (int y = cell(minY); y <= cell(maxY); y++) {
+                for (int z = cell(minZ); z <= cell(maxZ); z++) {
+                    if (nodes == nodeEntries.length) {
+                        nodeEntries = Arrays.copyOf(nodeEntries, nodes * 2);
+                        nodeNext = Arrays.copyOf(nodeNext, nodes * 2);
+                    }
+
+                    nodeEntries[nodes] = index;
+                    nodeNext[nodes] = cells.put(BlockPos.asLong(x, y, z), nodes);
+                    ++nodes;
+                }
+            }
+        }
+    }
+
+    /**
+     * @param box the area to search
+     * @return whether or not any box in the hash intersects the given box
+     */
+    public boolean anyIntersecting(Box box) {
+        if (entries == 0) {
+            return false;
+        }
+
+        for (int i = 0; i < oversized.size(); i++) {
+            if (intersects(oversized.getInt(i), box)) {
+                return true;
+            }
+        }
+
+        for (int x = cell(box.minX); x <= cell(box.maxX); x++) {
+            for (int y = cell(box.minY); y <= cell(box.maxY); y++) {
+                for (int z = cell(box.minZ); z <= cell(box.maxZ); z++) {
+                    for (int node = cells.get(BlockPos.asLong(x, y, z)); node >= 0; node = nodeNext[node]) {
+                        if (intersects(nodeEntries[node], box)) {
+                            return true;
+                        }
+                    }
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Empties the hash while keeping all of its storage for the next step.
+     */
+    public void clear() {
+        cells.clear();
+        oversized.clear();
+        entries = 0;
+        nodes = 0;
+    }
+
+    public boolean isEmpty() {
+        return entries == 0;
+    }
+
+    /* Matches Box#intersects, which doesn't count touching faces */
+    private boolean intersects(int index, Box box) {
+        int i = index * 6;
+        return bounds[i] < box.maxX && bounds[i + 3] > box.minX &&
+                bounds[i + 1] < box.maxY && bounds[i + 4] > box.minY &&
+                bounds[i + 2] < box.maxZ && bounds[i + 5] > box.minZ;
+    }
+
+    private static int cell(double coordinate) {
+        return MathHelper.floor(coordinate) >> CELL_SHIFT;
+    }
+}
@@ -1,6 +1,7 @@
 package dev.lazurite.rayon.core.impl.physics.space.util;
 
 import com.google.common.collect.Lists;
+import dev.lazurite.rayon.core.impl.physics.space.body.BlockRigidBody;
 import net.minecraft.block.BlockState;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Box;
@@ -11,6 +12,13 @@ import java.util.List;
 
 public class Clump {
     private final List<BlockInfo> blockInfo = Lists.newArrayList();
+    private List<BlockRigidBody> bodies = Lists.newArrayList();
+
+    /**
+     * Makes an empty clump, for when terrain isn't loaded block by block.
+     */
+    public Clump() {
+    }
 
     public Clump(World world, Box box) {
         for (int i = (int) box.minX; i < box.maxX; i++) {
@@ -27,10 +35,40 @@ public class Clump {
         }
     }
 
+    /**
+     * Makes a clump out of blocks that have already been scanned, in the same order as {@link Clump#Clump(World, Box)}.
+     * @param region the scanned region, which must include the given area
+     * @param box the area around the element
+     */
+    public Clump(TerrainRegion region, Box box) {
+        for (int i = (int) box.minX; i < box.maxX; i++) {
+            for (int j = (int) box.minY; j < box.maxY; j++) {
+                for (int k = (int) box.minZ; k < box.maxZ; k++) {
+                    BlockInfo info = region.get(i, j, k);
+
+                    if (info != null) {
+                        blockInfo.add(info);
+                    }
+                }
+            }
+        }
+    }
+
     public List<BlockInfo> getData() {
         return this.blockInfo;
     }
 
+    public void setBodies(List<BlockRigidBody> bodies) {
+        this.bodies = bodies;
+    }
+
+    /**
+     * @return the {@link BlockRigidBody}s that were loaded from this clump
+     */
+    public List<BlockRigidBody> getBodies() {
+        return this.bodies;
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (obj instanceof Clump) {
@@ -0,0 +1,141 @@
+package dev.lazurite.rayon.core.impl.physics.space.util;
+
+import com.jme3.bullet.collision.PhysicsCollisionObject;
+import com.jme3.math.Vector3f;
+import dev.lazurite.rayon.core.impl.physics.space.MinecraftSpace;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * Collects every contact point reported during a step into one entry per pair of
+ * bodies, along with the summed and peak impulse of the pair. Pairs are identified
+ * by a single long made from the ids {@link MinecraftSpace} hands out to its bodies,
+ * so the pairs of two steps can be compared cheaply to find contacts that began or ended.
+ * The location of the strongest contact point can be kept too, for bodies that need it.
+ * Should only be used on the physics thread.
+ * @see MinecraftSpace#collision
+ */
+public class ContactBuffer {
+    private final Long2IntOpenHashMap slots = new Long2IntOpenHashMap();
+    private int size;
+    private long[] keys = new long[16];
+    private PhysicsCollisionObject[] objectsA = new PhysicsCollisionObject[16];
+    private PhysicsCollisionObject[] objectsB = new PhysicsCollisionObject[16];
+    private float[] impulses = new float[16];
+    private float[] peakImpulses = new float[16];
+    private float[] locations = new float[16 * 3];
+
+    public ContactBuffer() {
+        this.slots.defaultReturnValue(-1);
+    }
+
+    /**
+     * Makes a key for the given pair of ids which is the same regardless of their order.
+     * @param idA the id of the first body
+     * @param idB the id of the second body
+     * @return the pair's key
+     */
+    public static long key(int idA, int idB) {
+        return idA < idB ? ((long) idA << 32) | (idB & 0xFFFFFFFFL) : ((long) idB << 32) | (idA & 0xFFFFFFFFL);
+    }
+
+    public void add(long key, PhysicsCollisionObject objectA, PhysicsCollisionObject objectB, float impulse) {
+        add(key, objectA, objectB, impulse, null);
+    }
+
+    /**
+     * @param key the pair's key
+     * @param objectA the first body
+     * @param objectB the second body
+     * @param impulse the impulse of this contact point
+     * @param location where the contact point is, or null if it isn't needed
+     */
+    public void add(long key, PhysicsCollisionObject objectA, PhysicsCollisionObject objectB, float impulse, @Nullable Vector3f location) {
+        int slot = slots.get(key);
+
+        if (slot < 0) {
+            if (size == keys.length) {
+                grow();
+            }
+
+            slot = size++;
+            slots.put(key, slot);
+            keys[slot] = key;
+            objectsA[slot] = objectA;
+            objectsB[slot] = objectB;
+            impulses[slot] = 0;
+            peakImpulses[slot] = 0;
+            locations[slot * 3] = Float.NaN;
+        }
+
+        if (location != null && (impulse >= peakImpulses[slot] || Float.isNaN(locations[slot * 3]))) {
+            locations[slot * 3] = location.x;
+            locations[slot * 3 + 1] = location.y;
+            locations[slot * 3 + 2] = location.z;
+        }
+
+        impulses[slot] += impulse;
+        peakImpulses[slot] = Math.max(peakImpulses[slot], impulse);
+    }
+
+    public boolean contains(long key) {
+        return slots.containsKey(key);
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public long getKey(int slot) {
+        return this.keys[slot];
+    }
+
+    public PhysicsCollisionObject getObjectA(int slot) {
+        return this.objectsA[slot];
+    }
+
+    public PhysicsCollisionObject getObjectB(int slot) {
+        return this.objectsB[slot];
+    }
+
+    public float getImpulse(int slot) {
+        return this.impulses[slot];
+    }
+
+    public float getPeakImpulse(int slot) {
+        return this.peakImpulses[slot];
+    }
+
+    /**
+     * @param slot the pair's slot
+     * @param store the vector to store the location in
+     * @return the location of the pair's strongest contact point, or null if none was given
+     */
+    @Nullable
+    public Vector3f getLocation(int slot, Vector3f store) {
+        if (Float.isNaN(locations[slot * 3])) {
+            return null;
+        }
+
+        return store.set(locations[slot * 3], locations[slot * 3 + 1], locations[slot * 3 + 2]);
+    }
+
+    public void clear() {
+        Arrays.fill(objectsA, 0, size, null);
+        Arrays.fill(objectsB, 0, size, null);
+        slots.clear();
+        size = 0;
+    }
+
+    private void grow() {
+        int length = keys.length * 2;
+        keys = Arrays.copyOf(keys, length);
+        objectsA = Arrays.copyOf(objectsA, length);
+        objectsB = Arrays.copyOf(objectsB, length);
+        impulses = Arrays.copyOf(impulses, length);
+        peakImpulses = Arrays.copyOf(peakImpulses, length);
+        locations = Arrays.copyOf(locations, length * 3);
+    }
+}
@@ -0,0 +1,140 @@
+package dev.lazurite.rayon.core.impl.physics.space.util;
+
+import com.google.common.collect.Lists;
+import dev.lazurite.rayon.core.impl.physics.space.environment.TerrainSection;
+
+import java.util.List;
+
+/**
+ * Merges a cube of cells into as few boxes as it can. Each cell has a material and only
+ * neighbouring cells with the same material are merged together. Boxes are grown along x
+ * first, then z, then y, so a flat floor of one material always ends up as a single box.
+ * @see TerrainSection
+ */
+public final class GreedyMesher {
+    /** The material of a cell which shouldn't be part of any box. */
+    public static final int EMPTY = -1;
+
+    private GreedyMesher() {
+    }
+
+    /**
+     * @param materials the material of each cell, ordered by x, then z, then y
+     * @param size the width of the cube in cells
+     * @return the merged boxes
+     */
+    public static List<Region> mesh(int[] materials, int size) {
+        List<Region> regions = Lists.newArrayList();
+        boolean[] done = new boolean[materials.length];
+
+        for (int y = 0; y < size; y++) {
+            for (int z = 0; z < size; z++) {
+                for (int x = 0; x < size; x++) {
+                    int material = materials[index(x, y, z, size)];
+
+                    if (material == EMPTY || done[index(x, y, z, size)]) {
+                        continue;
+                    }
+
+                    int maxX = x + 1;
+                    while (maxX < size && fits(materials, done, material, maxX, maxX + 1, y, y + 1, z, z + 1, size)) {
+                        maxX++;
+                    }
+
+                    int maxZ = z + 1;
+                    while (maxZ < size && fits(materials, done, material, x, maxX, y, y + 1, maxZ, maxZ + 1, size)) {
+                        maxZ++;
+                    }
+
+                    int maxY = y + 1;
+                    while (maxY < size && fits(materials, done, material, x, maxX, maxY, maxY + 1, z, maxZ, size)) {
+                        maxY++;
+                    }
+
+                    for (int j = y; j < maxY; j++) {
+                        for (int k = z; k < maxZ; k++) {
+                            for (int i = x; i < maxX; i++) {
+                                done[index(i, j, k, size)] = true;
+                            }
+                        }
+                    }
+
+                    regions.add(new Region(x, y, z, maxX, maxY, maxZ, material));
+                }
+            }
+        }
+
+        return regions;
+    }
+
+    public static int index(int x, int y, int z, int size) {
+        return (y * size + z) * size + x;
+    }
+
+    private static boolean fits(int[] materials, boolean[] done, int material, int minX, int maxX, int minY, int maxY, int minZ, int maxZ, int size) {
+        for (int j = minY; j < maxY; j++) {
+            for (int k = minZ; k < maxZ; k++) {
+                for (int i = minX; i < maxX; i++) {
+                    int index = index(i, j, k, size);
+
+                    if (done[index] || materials[index] != material) {
+                        return false;
+                    }
+                }
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * A box of cells which all share one material. The maximum corner is exclusive.
+     */
+    public static class Region {
+        private final int minX;
+        private final int minY;
+        private final int minZ;
+        private final int maxX;
+        private final int maxY;
+        private final int maxZ;
+        private final int material;
+
+        public Region(int minX, int minY, int minZ, int maxX, int maxY, int maxZ, int material) {
+            this.minX = minX;
+            this.minY = minY;
+            this.minZ = minZ;
+            this.maxX = maxX;
+            this.maxY = maxY;
+            this.maxZ = maxZ;
+            this.material = material;
+        }
+
+        public int getMinX() {
+            return this.minX;
+        }
+
+        public int getMinY() {
+            return this.minY;
+        }
+
+        public int getMinZ() {
+            return this.minZ;
+        }
+
+        public int getSizeX() {
+            return this.maxX - this.minX;
+        }
+
+        public int getSizeY() {
+            return this.maxY - this.minY;
+        }
+
+        public int getSizeZ() {
+            return this.maxZ - this.minZ;
+        }
+
+        public int getMaterial() {
+            return this.material;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package dev.lazurite.rayon.core.impl.physics.space.util;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import dev.lazurite.rayon.core.impl.physics.space.MinecraftSpace;
+import dev.lazurite.rayon.core.impl.physics.space.body.type.TerrainLoading;
+import dev.lazurite.rayon.core.impl.physics.space.environment.TerrainManager;
+import dev.lazurite.rayon.core.impl.util.config.Config;
+import net.minecraft.util.math.Box;
+import net.minecraft.world.World;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Scans the terrain around several {@link TerrainLoading} bodies on the workers of a {@link ForkJoinPool}.
+ * The bodies are first grouped by overlapping load areas. Bodies in different groups can never share terrain,
+ * so each group is scanned on its own worker, and within a group each block is only read once using a
+ * {@link TerrainRegion}. Only the (read-only) block scan runs in parallel. The scanned {@link Clump}s are
+ * handed back to {@link TerrainManager} on the physics thread in the original body order, so the result is the
+ * same as a sequential load, and the space itself is still stepped on the physics thread.
+ * @see MinecraftSpace#step
+ */
+public final class ParallelTerrainScan {
+    private static final ThreadLocal<TerrainRegion> REGIONS = ThreadLocal.withInitial(TerrainRegion::new);
+    private static ForkJoinPool pool;
+
+    private ParallelTerrainScan() { }
+
+    /**
+     * Scans the terrain around every body, one {@link ForkJoinTask} per group of overlapping
+     * load areas. Each worker reuses its own {@link TerrainRegion}. Blocks until every group
+     * has been scanned.
+     * @param world the world to read blocks from
+     * @param bodies the bodies to scan around
+     * @return the {@link Clump} for each body
+     */
+    public static Map<TerrainLoading, Clump> scan(World world, List<TerrainLoading> bodies) {
+        List<ForkJoinTask<Map<TerrainLoading, Clump>>> tasks = Lists.newArrayList();
+
+        for (Group group : group(bodies)) {
+            tasks.add(getPool().submit(() -> {
+                Map<TerrainLoading, Clump> out = Maps.newHashMap();
+                TerrainRegion region = REGIONS.get();
+
+                try {
+                    group.boxes.forEach(region::add);
+                    region.scan(world);
+
+                    for (int i = 0; i < group.bodies.size(); i++) {
+                        out.put(group.bodies.get(i), new Clump(region, group.boxes.get(i)));
+                    }
+                } finally {
+                    region.clear();
+                }
+
+                return out;
+            }));
+        }
+
+        Map<TerrainLoading, Clump> out = Maps.newHashMap();
+        tasks.forEach(task -> out.putAll(task.join()));
+        return out;
+    }
+
+    /**
+     * Splits the given bodies into groups based on their load areas. Whenever a group
+     * grows, it's checked against every other group again until none of them overlap.
+     * @param bodies the bodies to group
+     * @return the list of groups
+     */
+    private static List<Group> group(List<TerrainLoading> bodies) {
+        List<Group> groups = Lists.newArrayList();
+
+        for (TerrainLoading body : bodies) {
+            Group target = new Group(body, TerrainManager.getLoadBox(body));
+            boolean grown = true;
+
+            while (grown) {
+                grown = false;
+                Iterator<Group> iterator = groups.iterator();
+
+                while (iterator.hasNext()) {
+                    Group group = iterator.next();
+
+                    if (group.bounds.intersects(target.bounds)) {
+                        target.merge(group);
+                        iterator.remove();
+                        grown = true;
+                    }
+                }
+            }
+
+            groups.add(target);
+        }
+
+        return groups;
+    }
+
+    private static synchronized ForkJoinPool getPool() {
+        if (pool == null) {
+            pool = new ForkJoinPool(Config.getTerrainScanParallelism());
+        }
+
+        return pool;
+    }
+
+    /**
+     * A set of bodies whose load areas overlap, along with the area covering all of them.
+     */
+    private static class Group {
+        private final List<TerrainLoading> bodies = Lists.newArrayList();
+        private final List<Box> boxes = Lists.newArrayList();
+        private Box bounds;
+
+        private Group(TerrainLoading body, Box box) {
+            this.add(body, box);
+        }
+
+        private void add(TerrainLoading body, Box box) {
+            this.bodies.add(body);
+            this.boxes.add(box);
+            this.bounds = bounds == null ? box : bounds.union(box);
+        }
+
+        private void merge(Group group) {
+            for (int i = 0; i < group.bodies.size(); i++) {
+                this.add(group.bodies.get(i), group.boxes.get(i));
+            }
+        }
+    }
+}
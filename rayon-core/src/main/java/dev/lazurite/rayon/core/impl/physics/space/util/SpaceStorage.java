@@ -1,19 +1,40 @@
 package dev.lazurite.rayon.core.impl.physics.space.util;
 
 import dev.lazurite.rayon.core.impl.mixin.common.WorldMixin;
+import dev.lazurite.rayon.core.impl.physics.PhysicsThread;
 import dev.lazurite.rayon.core.impl.physics.space.MinecraftSpace;
 import net.minecraft.util.Identifier;
 import net.minecraft.world.World;
 
 import java.util.List;
+import java.util.function.Supplier;
 
 /**
  * Used for storing a {@link MinecraftSpace} within any
- * {@link World} object.
+ * {@link World} object, as well as the {@link PhysicsThread}
+ * the world's spaces are pinned to.
  * @see WorldMixin
  */
 public interface SpaceStorage {
     void putSpace(Identifier identifier, MinecraftSpace space);
     MinecraftSpace getSpace(Identifier identifier);
     List<MinecraftSpace> getSpaces();
+
+    /**
+     * Gets the space, creating it with the given factory if it doesn't exist yet.
+     * Other spaces may be put from within the factory.
+     * @param identifier the space's identifier
+     * @param factory creates the space
+     * @return the space
+     */
+    MinecraftSpace getOrCreateSpace(Identifier identifier, Supplier<MinecraftSpace> factory);
+
+    /**
+     * Removes every space from the world.
+     * @return the removed spaces
+     */
+    List<MinecraftSpace> removeSpaces();
+
+    void setPhysicsThread(PhysicsThread thread);
+    PhysicsThread getPhysicsThread();
 }
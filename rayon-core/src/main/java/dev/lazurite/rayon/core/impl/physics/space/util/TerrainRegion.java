@@ -0,0 +1,180 @@
+package dev.lazurite.rayon.core.impl.physics.space.util;
+
+import dev.lazurite.rayon.core.impl.physics.space.body.type.TerrainLoading;
+import dev.lazurite.rayon.core.impl.physics.space.environment.TerrainManager;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMaps;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Box;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.world.BlockView;
+import net.minecraft.world.World;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * The union of the load areas of several {@link TerrainLoading} bodies. Areas are added as a bitset
+ * per 16x16x16 chunk section, and every marked block is then read from the world exactly once no
+ * matter how many areas it falls within. Each body's {@link Clump} is built from the shared result
+ * afterwards, so overlapping bodies (e.g. a pile of them) don't scan the same blocks over and over.
+ * Sections are pooled, and clearing a region only wipes the bits and blocks that were actually
+ * used, so reusing one region step after step doesn't allocate any sections once it has warmed up.
+ * Scanning still allocates one {@link Clump.BlockInfo} (and its {@link BlockPos}) per marked block,
+ * since the {@link Clump}s built from the region hold on to them after it has been cleared.
+ * A region should only be used by one thread at a time.
+ * @see TerrainManager#load(java.util.List)
+ */
+public class TerrainRegion {
+    private static final int VOLUME = 16 * 16 * 16;
+
+    /* Caps how much memory an idle region holds on to (each section is around 20KB) */
+    private static final int MAX_POOLED = 64;
+
+    private final Long2ObjectMap<Section> sections = new Long2ObjectOpenHashMap<>();
+    private final Deque<Section> pool = new ArrayDeque<>();
+    private long lastKey = Long.MAX_VALUE;
+    private Section last;
+
+    /**
+     * Marks every block within the given area, using the same bounds as {@link Clump#Clump(World, Box)}.
+     * @param box the area to add
+     */
+    public void add(Box box) {
+        int minX = (int) box.minX;
+        int minY = (int) box.minY;
+        int minZ = (int) box.minZ;
+        int maxX = MathHelper.ceil(box.maxX);
+        int maxY = MathHelper.ceil(box.maxY);
+        int maxZ = MathHelper.ceil(box.maxZ);
+
+        for (int sectionX = minX >> 4; sectionX <= (maxX - 1) >> 4; sectionX++) {
+            for (int sectionY = minY >> 4; sectionY <= (maxY - 1) >> 4; sectionY++) {
+                for (int sectionZ = minZ >> 4; sectionZ <= (maxZ - 1) >> 4; sectionZ++) {
+                    long key = ChunkSectionPos.asLong(sectionX, sectionY, sectionZ);
+                    Section section = sections.get(key);
+
+                    if (section == null) {
+                        section = pool.isEmpty() ? new Section() : pool.pop();
+                        sections.put(key, section);
+                    }
+
+                    int fromX = Math.max(minX, sectionX << 4);
+                    int fromY = Math.max(minY, sectionY << 4);
+                    int fromZ = Math.max(minZ, sectionZ << 4);
+                    int toX = Math.min(maxX, (sectionX + 1) << 4);
+                    int toY = Math.min(maxY, (sectionY + 1) << 4);
+                    int toZ = Math.min(maxZ, (sectionZ + 1) << 4);
+
+                    for (int y = fromY; y < toY; y++) {
+                        for (int z = fromZ; z < toZ; z++) {
+                            for (int x = fromX; x < toX; x++) {
+                                int index = index(x, y, z);
+                                section.marked[index >> 6] |= 1L << index;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads every marked block from the world. Chunks that aren't loaded are skipped,
+     * just like in {@link Clump#Clump(World, Box)}.
+     * @param world the world to read from
+     */
+    public void scan(World world) {
+        BlockPos.Mutable blockPos = new BlockPos.Mutable();
+        ObjectIterator<Long2ObjectMap.Entry<Section>> iterator = Long2ObjectMaps.fastIterator(sections);
+
+        while (iterator.hasNext()) {
+            Long2ObjectMap.Entry<Section> entry = iterator.next();
+            Section section = entry.getValue();
+            int originX = ChunkSectionPos.unpackX(entry.getLongKey()) << 4;
+            int originY = ChunkSectionPos.unpackY(entry.getLongKey()) << 4;
+            int originZ = ChunkSectionPos.unpackZ(entry.getLongKey()) << 4;
+            BlockView chunk = world.getChunkManager().getChunk(originX >> 4, originZ >> 4);
+
+            if (chunk == null) {
+                continue;
+            }
+
+            for (int word = 0; word < section.marked.length; word++) {
+                long bits = section.marked[word];
+
+                while (bits != 0) {
+                    int index = (word << 6) | Long.numberOfTrailingZeros(bits);
+                    bits &= bits - 1;
+
+                    blockPos.set(originX + (index & 15), originY + (index >> 8), originZ + ((index >> 4) & 15));
+                    BlockPos immutable = blockPos.toImmutable();
+                    section.blockInfo[index] = new Clump.BlockInfo(immutable, chunk.getBlockState(immutable));
+                }
+            }
+        }
+    }
+
+    /**
+     * @param x the x position of the block
+     * @param y the y position of the block
+     * @param z the z position of the block
+     * @return the scanned block, or null if it wasn't marked or its chunk isn't loaded
+     */
+    @Nullable
+    public Clump.BlockInfo get(int x, int y, int z) {
+        long key = ChunkSectionPos.asLong(x >> 4, y >> 4, z >> 4);
+
+        if (key != lastKey) {
+            lastKey = key;
+            last = sections.get(key);
+        }
+
+        return last == null ? null : last.blockInfo[index(x, y, z)];
+    }
+
+    /**
+     * Empties the region, returning its sections to the pool.
+     */
+    public void clear() {
+        for (Section section : sections.values()) {
+            if (pool.size() < MAX_POOLED) {
+                section.clear();
+                pool.push(section);
+            }
+        }
+
+        sections.clear();
+        lastKey = Long.MAX_VALUE;
+        last = null;
+    }
+
+    private static int index(int x, int y, int z) {
+        return ((y & 15) << 8) | ((z & 15) << 4) | (x & 15);
+    }
+
+    private static class Section {
+        private final long[] marked = new long[VOLUME / 64];
+        private final Clump.BlockInfo[] blockInfo = new Clump.BlockInfo[VOLUME];
+
+        /**
+         * Only the marked slots can hold a block, so only those are wiped.
+         */
+        private void clear() {
+            for (int word = 0; word < marked.length; word++) {
+                long bits = marked[word];
+
+                while (bits != 0) {
+                    blockInfo[(word << 6) | Long.numberOfTrailingZeros(bits)] = null;
+                    bits &= bits - 1;
+                }
+
+                marked[word] = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package dev.lazurite.rayon.core.impl.physics.util.thread;
+
+import dev.lazurite.rayon.core.impl.physics.PhysicsThread;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Determines what a {@link PhysicsThread} does while its task queue is empty.
+ * Parking strategies are woken up by {@link PhysicsThread#execute} so no task
+ * is left waiting once it has been queued.
+ * <ul>
+ *     <li><b>Park:</b> Sleeps right away. Lowest CPU usage, highest wake-up latency.</li>
+ *     <li><b>Spin Then Park:</b> Spins, then yields, then sleeps.</li>
+ *     <li><b>Yield:</b> Yields to other threads but never sleeps.</li>
+ *     <li><b>Spin:</b> Busy-waits. Lowest wake-up latency but keeps a core busy.</li>
+ * </ul>
+ * @see PhysicsThread
+ */
+public enum IdleStrategy {
+    PARK {
+        @Override
+        public void idle(Thread thread, int idleCount) {
+            LockSupport.park(thread);
+        }
+    },
+    SPIN_THEN_PARK {
+        @Override
+        public void idle(Thread thread, int idleCount) {
+            if (idleCount < SPIN_COUNT) {
+                return;
+            } else if (idleCount < SPIN_COUNT + YIELD_COUNT) {
+                Thread.yield();
+            } else {
+                LockSupport.park(thread);
+            }
+        }
+    },
+    YIELD {
+        @Override
+        public void idle(Thread thread, int idleCount) {
+            Thread.yield();
+        }
+    },
+    SPIN {
+        @Override
+        public void idle(Thread thread, int idleCount) {
+        }
+    };
+
+    private static final int SPIN_COUNT = 1000;
+    private static final int YIELD_COUNT = 100;
+
+    /**
+     * Called repeatedly by the owning thread for as long as there is nothing to do.
+     * @param thread the idle thread (used as the park blocker)
+     * @param idleCount how many times in a row the thread has been idle
+     */
+    public abstract void idle(Thread thread, int idleCount);
+
+    /**
+     * @return whether or not this strategy can put the thread to sleep
+     */
+    public boolean parks() {
+        return this == PARK || this == SPIN_THEN_PARK;
+    }
+}
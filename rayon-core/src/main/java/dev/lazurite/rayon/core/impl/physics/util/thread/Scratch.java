@@ -0,0 +1,41 @@
+package dev.lazurite.rayon.core.impl.physics.util.thread;
+
+import com.jme3.bounding.BoundingBox;
+import com.jme3.math.Quaternion;
+import com.jme3.math.Vector3f;
+import dev.lazurite.rayon.core.impl.physics.PhysicsThread;
+
+/**
+ * Reusable math objects owned by a {@link PhysicsThread} so that the per-body work done
+ * during each step doesn't need to allocate. Each caller picks its own slots, and whatever
+ * is stored in a slot is only valid until the next time that slot is used. Never hold on
+ * to these objects or use them from any other thread.
+ * @see PhysicsThread#getScratch()
+ */
+public class Scratch {
+    public static final int SLOTS = 8;
+
+    private final Vector3f[] vectors = new Vector3f[SLOTS];
+    private final Quaternion[] rotations = new Quaternion[SLOTS];
+    private final BoundingBox[] boxes = new BoundingBox[SLOTS];
+
+    public Scratch() {
+        for (int i = 0; i < SLOTS; i++) {
+            vectors[i] = new Vector3f();
+            rotations[i] = new Quaternion();
+            boxes[i] = new BoundingBox();
+        }
+    }
+
+    public Vector3f vector(int slot) {
+        return vectors[slot];
+    }
+
+    public Quaternion rotation(int slot) {
+        return rotations[slot];
+    }
+
+    public BoundingBox box(int slot) {
+        return boxes[slot];
+    }
+}
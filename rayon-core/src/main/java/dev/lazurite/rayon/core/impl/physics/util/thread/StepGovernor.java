@@ -0,0 +1,155 @@
+package dev.lazurite.rayon.core.impl.physics.util.thread;
+
+import com.jme3.math.Vector3f;
+import dev.lazurite.rayon.core.impl.physics.space.MinecraftSpace;
+import net.minecraft.util.math.Vec3d;
+
+import java.util.List;
+
+/**
+ * Keeps each step of a {@link MinecraftSpace} within a millisecond budget. Step times are smoothed
+ * using a moving average, and once the average has been over budget for several steps in a row the
+ * governor moves up one {@link Level} and the space starts cutting corners in the order the levels
+ * are declared. A single slow step (e.g. a GC pause) is therefore not enough to degrade anything.
+ * Once steps have been comfortably under budget for a while, it moves back down one level at a time.
+ * The current level and the number of steps spent at each level are available so they can be monitored.
+ * @see MinecraftSpace#step
+ */
+public class StepGovernor {
+    /* How many consecutive fast steps are needed before recovering one level */
+    private static final int RECOVERY_STEPS = 20;
+
+    /* How many consecutive slow steps are needed before escalating one level */
+    private static final int ESCALATION_STEPS = 10;
+
+    /* How much each new step counts towards the moving average */
+    private static final float SMOOTHING = 0.2f;
+
+    public enum Level {
+        /** Nothing is degraded. */
+        NONE,
+        /** Only the minimum number of substeps are used. */
+        FEWER_SUBSTEPS,
+        /** Bodies far from players only load terrain every few steps. */
+        THROTTLED_TERRAIN,
+        /** Drag is skipped for slow moving bodies. */
+        NO_SLOW_DRAG,
+        /** Elements far from players without a priority player are frozen in place. */
+        FROZEN_ELEMENTS
+    }
+
+    private final float budget;
+    private final double distantSquared;
+    private final long[] stepsAtLevel = new long[Level.values().length];
+
+    private Level level = Level.NONE;
+    private long overBudgetSteps;
+    private int fastSteps;
+    private int slowSteps;
+    private float lastStepMilliseconds;
+    private float averageMilliseconds;
+
+    /**
+     * @param budget the budget for a single step in milliseconds, or zero to disable
+     * @param distantDistance how far (in blocks) from every player a body must be to count as distant
+     */
+    public StepGovernor(float budget, float distantDistance) {
+        this.budget = budget;
+        this.distantSquared = distantDistance * distantDistance;
+    }
+
+    /**
+     * Records how long the most recent step took and adjusts the level accordingly.
+     * Presim steps shouldn't be recorded since they aren't representative.
+     * @param nanoseconds the duration of the step
+     */
+    public void record(long nanoseconds) {
+        this.lastStepMilliseconds = nanoseconds / 1000000f;
+        this.averageMilliseconds += (lastStepMilliseconds - averageMilliseconds) * SMOOTHING;
+        this.stepsAtLevel[level.ordinal()]++;
+
+        if (!isEnabled()) {
+            return;
+        }
+
+        if (lastStepMilliseconds > budget) {
+            overBudgetSteps++;
+        }
+
+        if (averageMilliseconds > budget) {
+            fastSteps = 0;
+
+            if (++slowSteps >= ESCALATION_STEPS && level.ordinal() < Level.values().length - 1) {
+                slowSteps = 0;
+                level = Level.values()[level.ordinal() + 1];
+            }
+        } else if (averageMilliseconds < budget / 2.0f && level != Level.NONE) {
+            slowSteps = 0;
+
+            if (++fastSteps >= RECOVERY_STEPS) {
+                fastSteps = 0;
+                level = Level.values()[level.ordinal() - 1];
+            }
+        } else {
+            fastSteps = 0;
+            slowSteps = 0;
+        }
+    }
+
+    /**
+     * @param level the level to check
+     * @return whether or not the governor has reached the given level
+     */
+    public boolean isAtLeast(Level level) {
+        return this.level.ordinal() >= level.ordinal();
+    }
+
+    /**
+     * Checks whether a location is far away from every one of the given player positions.
+     * Without any players there's nothing to measure from, so nothing counts as distant.
+     * @param location the location of the body
+     * @param players the positions of every player in the world
+     * @return whether or not the location is distant
+     */
+    public boolean isDistant(Vector3f location, List<Vec3d> players) {
+        if (players.isEmpty()) {
+            return false;
+        }
+
+        for (Vec3d player : players) {
+            if (player.squaredDistanceTo(location.x, location.y, location.z) < distantSquared) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    public boolean isEnabled() {
+        return this.budget > 0;
+    }
+
+    public Level getLevel() {
+        return this.level;
+    }
+
+    public float getBudget() {
+        return this.budget;
+    }
+
+    public float getLastStepMilliseconds() {
+        return this.lastStepMilliseconds;
+    }
+
+    public float getAverageMilliseconds() {
+        return this.averageMilliseconds;
+    }
+
+    public long getOverBudgetSteps() {
+        return this.overBudgetSteps;
+    }
+
+    public long getStepsAtLevel(Level level) {
+        return this.stepsAtLevel[level.ordinal()];
+    }
+}
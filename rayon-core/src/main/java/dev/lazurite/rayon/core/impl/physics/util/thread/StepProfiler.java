@@ -0,0 +1,139 @@
+package dev.lazurite.rayon.core.impl.physics.util.thread;
+
+import dev.lazurite.rayon.core.api.event.PhysicsSpaceEvents;
+import dev.lazurite.rayon.core.impl.physics.space.MinecraftSpace;
+
+import java.util.Arrays;
+
+/**
+ * Times each {@link Phase} of {@link MinecraftSpace#step} and keeps the totals of the last
+ * {@link StepProfiler#WINDOW} steps so that percentiles can be worked out on request. Phases
+ * which run once per body are added up over the whole step. Profiling is switched on and off
+ * for every space at once, and while it's off each timer is a single volatile read.<br>
+ * The totals of the current step belong to the physics thread. Anything timed elsewhere (e.g.
+ * {@link Phase#STEP_EVENT} on the main thread) should be handed over and passed to
+ * {@link StepProfiler#add} from within the step's task.
+ * @see MinecraftSpace#getProfiler()
+ */
+public class StepProfiler {
+    /** The number of steps percentiles are calculated over (ten seconds). */
+    public static final int WINDOW = 200;
+
+    private static volatile boolean enabled;
+
+    public enum Phase {
+        /** The {@link PhysicsSpaceEvents#STEP} listeners, on the main thread. */
+        STEP_EVENT,
+        ENTITY_PUSH,
+        ELEMENT_STEP,
+        DRAG,
+        TERRAIN_LOAD,
+        PURGE,
+        /** The native simulation update. */
+        UPDATE,
+        /** Collision, impact and contact events. */
+        EVENTS
+    }
+
+    private final long[] current = new long[Phase.values().length];
+    private final long[][] history = new long[Phase.values().length][WINDOW];
+    private int steps;
+
+    public static void setEnabled(boolean enabled) {
+        StepProfiler.enabled = enabled;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return the time to pass to {@link StepProfiler#stop}, or zero if profiling is off
+     */
+    public long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Adds the time since the given start to the phase for the current step.
+     * Should only be called on the physics thread.
+     * @param phase the phase that was timed
+     * @param start the value returned by {@link StepProfiler#start()}
+     */
+    public void stop(Phase phase, long start) {
+        add(phase, elapsed(start));
+    }
+
+    /**
+     * Adds a time measured somewhere else to the phase for the current step.
+     * Should only be called on the physics thread.
+     * @param phase the phase that was timed
+     * @param nanoseconds the value returned by {@link StepProfiler#elapsed}
+     */
+    public void add(Phase phase, long nanoseconds) {
+        current[phase.ordinal()] += nanoseconds;
+    }
+
+    /**
+     * @param start the value returned by {@link StepProfiler#start()}
+     * @return the time since the given start in nanoseconds, or zero if profiling was off
+     */
+    public long elapsed(long start) {
+        return start == 0 ? 0 : System.nanoTime() - start;
+    }
+
+    /**
+     * Ends the current step, moving its totals into the window.
+     * Should only be called on the physics thread.
+     */
+    public synchronized void commit() {
+        if (!enabled) {
+            Arrays.fill(current, 0);
+            return;
+        }
+
+        int slot = steps++ % WINDOW;
+
+        for (int i = 0; i < current.length; i++) {
+            history[i][slot] = current[i];
+            current[i] = 0;
+        }
+    }
+
+    /**
+     * Clears the window. The totals of the step in progress are left to the physics thread.
+     */
+    public synchronized void reset() {
+        for (long[] phase : history) {
+            Arrays.fill(phase, 0);
+        }
+
+        steps = 0;
+    }
+
+    /**
+     * @return the number of steps currently in the window
+     */
+    public synchronized int getSampleCount() {
+        return Math.min(steps, WINDOW);
+    }
+
+    /**
+     * Gets the given percentile of a phase's time per step over the window.
+     * @param phase the phase
+     * @param percentile between zero and one (e.g. 0.99)
+     * @return the time in milliseconds
+     */
+    public synchronized float getPercentile(Phase phase, double percentile) {
+        int count = getSampleCount();
+
+        if (count == 0) {
+            return 0;
+        }
+
+        long[] samples = Arrays.copyOf(history[phase.ordinal()], count);
+        Arrays.sort(samples);
+        int index = (int) Math.ceil(percentile * count) - 1;
+        return samples[Math.max(0, Math.min(count - 1, index))] / 1_000_000.0f;
+    }
+}
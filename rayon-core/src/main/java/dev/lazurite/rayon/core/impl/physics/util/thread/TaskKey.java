@@ -0,0 +1,45 @@
+package dev.lazurite.rayon.core.impl.physics.util.thread;
+
+import dev.lazurite.rayon.core.impl.physics.PhysicsThread;
+
+import java.util.Arrays;
+
+/**
+ * An immutable key made up of several parts. Used to identify tasks
+ * submitted through {@link PhysicsThread#execute(Object, Runnable)}
+ * so that a newer task can replace a pending one (e.g. the movement
+ * update for a specific entity in a specific world).
+ * @see PhysicsThread
+ */
+public final class TaskKey {
+    private final Object[] parts;
+    private final int hash;
+
+    private TaskKey(Object... parts) {
+        this.parts = parts;
+        this.hash = Arrays.hashCode(parts);
+    }
+
+    public static TaskKey of(Object... parts) {
+        return new TaskKey(parts);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof TaskKey) {
+            return hash == ((TaskKey) obj).hash && Arrays.equals(parts, ((TaskKey) obj).parts);
+        }
+
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return this.hash;
+    }
+
+    @Override
+    public String toString() {
+        return "TaskKey" + Arrays.toString(parts);
+    }
+}
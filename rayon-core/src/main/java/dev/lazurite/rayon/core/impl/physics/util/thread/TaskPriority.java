@@ -0,0 +1,20 @@
+package dev.lazurite.rayon.core.impl.physics.util.thread;
+
+import dev.lazurite.rayon.core.impl.physics.PhysicsThread;
+
+/**
+ * The priority classes of tasks queued on a {@link PhysicsThread}. Tasks
+ * in a higher class (declared first) always run before tasks in a lower
+ * class, and tasks within the same class run in the order they were queued.
+ * @see TaskQueue
+ */
+public enum TaskPriority {
+    /** Stepping the simulation. */
+    STEP,
+    /** Movement and other authoritative updates from the network. */
+    MOVEMENT,
+    /** Loading and unloading of elements. */
+    LOADING,
+    /** Everything else (the default). */
+    USER
+}
@@ -0,0 +1,102 @@
+package dev.lazurite.rayon.core.impl.physics.util.thread;
+
+import dev.lazurite.rayon.core.impl.physics.PhysicsThread;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The task queue used by {@link PhysicsThread}. Tasks are separated into {@link TaskPriority}
+ * classes and can optionally be given a deadline, after which they are dropped instead of run.
+ * The depth, average wait time and number of dropped tasks are tracked for each class.
+ * @see TaskPriority
+ * @see PhysicsThread
+ */
+public class TaskQueue {
+    private final Lane[] lanes = new Lane[TaskPriority.values().length];
+
+    public TaskQueue() {
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = new Lane();
+        }
+    }
+
+    /**
+     * Adds a task to the queue.
+     * @param priority the class of the task
+     * @param task the task to run
+     * @param deadline the {@link System#nanoTime()} after which the task should be dropped, or zero for none
+     */
+    public void add(TaskPriority priority, Runnable task, long deadline) {
+        Lane lane = lanes[priority.ordinal()];
+        lane.tasks.add(new Entry(task, System.nanoTime(), deadline));
+        lane.depth.incrementAndGet();
+    }
+
+    /**
+     * Removes the next task from the highest priority class that isn't empty.
+     * Expired tasks are counted and skipped.
+     * @return the next task, or null if there isn't one
+     */
+    public Runnable poll() {
+        for (Lane lane : lanes) {
+            Entry entry;
+
+            while ((entry = lane.tasks.poll()) != null) {
+                long now = System.nanoTime();
+                lane.depth.decrementAndGet();
+
+                if (entry.deadline != 0 && now - entry.deadline > 0) {
+                    lane.dropped.incrementAndGet();
+                    continue;
+                }
+
+                lane.totalWait.addAndGet(now - entry.queued);
+                lane.completed.incrementAndGet();
+                return entry.task;
+            }
+        }
+
+        return null;
+    }
+
+    public int getDepth(TaskPriority priority) {
+        return lanes[priority.ordinal()].depth.get();
+    }
+
+    /**
+     * @param priority the class to check
+     * @return the average time tasks in the class have waited before running, in milliseconds
+     */
+    public float getAverageWait(TaskPriority priority) {
+        Lane lane = lanes[priority.ordinal()];
+        long completed = lane.completed.get();
+        return completed == 0 ? 0 : lane.totalWait.get() / (float) completed / 1000000f;
+    }
+
+    public long getDropped(TaskPriority priority) {
+        return lanes[priority.ordinal()].dropped.get();
+    }
+
+    private static class Lane {
+        private final Queue<Entry> tasks = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger depth = new AtomicInteger();
+        private final AtomicLong totalWait = new AtomicLong();
+        private final AtomicLong completed = new AtomicLong();
+        private final AtomicLong dropped = new AtomicLong();
+    }
+
+    private static class Entry {
+        private final Runnable task;
+        private final long queued;
+        private final long deadline;
+
+        private Entry(Runnable task, long queued, long deadline) {
+            this.task = task;
+            this.queued = queued;
+            this.deadline = deadline;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package dev.lazurite.rayon.core.impl.physics.util.thread;
+
+import com.jme3.bullet.PhysicsSpace;
+import com.jme3.math.Vector3f;
+import dev.lazurite.rayon.core.impl.physics.space.MinecraftSpace;
+import dev.lazurite.rayon.core.impl.physics.space.body.ElementRigidBody;
+
+/**
+ * Decides how far a {@link MinecraftSpace} should be advanced each time it is stepped. Real elapsed
+ * time (measured using a {@link Clock}) is added to an accumulator which is then consumed in fixed
+ * {@link TimestepManager#STEP} sized steps. The accumulator is kept half a step ahead so that ticks,
+ * which are one step apart give or take some jitter, land squarely on one step each. If the game falls
+ * further behind than the catch-up steps allow (e.g. after a pause), as many steps as are allowed are
+ * taken and only the time beyond that is dropped (and counted). The number of substeps used for each
+ * step is chosen based on how fast the active bodies are moving.
+ * @see MinecraftSpace#step
+ * @see Clock
+ */
+public class TimestepManager {
+    public static final float STEP = 1 / 20f;
+
+    /* The furthest any body should move during a single substep (m) */
+    private static final float MAX_SUBSTEP_TRAVEL = 0.25f;
+
+    private final Clock clock = new Clock();
+    private final boolean accumulate;
+    private final int maxCatchUpSteps;
+    private final int minSubsteps;
+    private final int maxSubsteps;
+
+    private float accumulator = STEP / 2;
+    private long droppedSteps;
+    private int lastSubsteps;
+    private volatile boolean resetRequested;
+
+    public TimestepManager(boolean accumulate, int maxCatchUpSteps, int minSubsteps, int maxSubsteps) {
+        this.accumulate = accumulate;
+        this.maxCatchUpSteps = Math.max(1, maxCatchUpSteps);
+        this.minSubsteps = Math.max(1, minSubsteps);
+        this.maxSubsteps = Math.max(this.minSubsteps, maxSubsteps);
+        this.lastSubsteps = this.maxSubsteps;
+    }
+
+    /**
+     * Adds the time since the last call to the accumulator and removes the
+     * steps which should be taken now. When accumulation is turned off, this
+     * will always return one step. Should only be called from one thread.
+     * @return the number of {@link TimestepManager#STEP}s to take
+     */
+    public int consumeSteps() {
+        float delta = clock.getAndReset();
+
+        if (!accumulate) {
+            return 1;
+        }
+
+        if (resetRequested) {
+            resetRequested = false;
+            accumulator = STEP / 2;
+            return 1;
+        }
+
+        accumulator += delta;
+        int steps = (int) (accumulator / STEP);
+
+        /* Too far behind to catch up fully, so take what's allowed and start over from there */
+        if (steps > maxCatchUpSteps) {
+            droppedSteps += steps - maxCatchUpSteps;
+            accumulator = STEP / 2;
+            return maxCatchUpSteps;
+        }
+
+        accumulator -= steps * STEP;
+        return steps;
+    }
+
+    /**
+     * Chooses the number of substeps for the next step based on the fastest active
+     * {@link ElementRigidBody} so that no body travels more than a fraction of a block
+     * per substep. Also applies the matching accuracy to the given space.
+     * @param space the space about to be stepped
+     * @param minimum whether or not to skip the calculation and use the minimum substeps
+     * @return the number of substeps to pass to {@link PhysicsSpace#update(float, int)}
+     */
+    public int chooseSubsteps(MinecraftSpace space, boolean minimum) {
+        float maxSpeed = 0;
+        Vector3f velocity = space.getThread().getScratch().vector(0);
+
+        for (ElementRigidBody rigidBody : space.getRigidBodiesByClass(ElementRigidBody.class)) {
+            if (!minimum && rigidBody.isActive()) {
+                maxSpeed = Math.max(maxSpeed, rigidBody.getLinearVelocity(velocity).length());
+            }
+        }
+
+        int substeps = (int) Math.ceil(maxSpeed * STEP / MAX_SUBSTEP_TRAVEL);
+        this.lastSubsteps = Math.max(minSubsteps, Math.min(maxSubsteps, substeps));
+        space.setAccuracy(STEP / lastSubsteps);
+        return lastSubsteps;
+    }
+
+    /**
+     * Throws away any accumulated time. Used while the space isn't
+     * being stepped (e.g. during presim) so it doesn't try to catch up.
+     */
+    public void reset() {
+        clock.reset();
+        accumulator = STEP / 2;
+    }
+
+    /**
+     * Asks for the accumulated time to be thrown away the next time steps are consumed,
+     * which then takes exactly one step. Can be called from any thread.
+     * @see TimestepManager#reset()
+     */
+    public void requestReset() {
+        this.resetRequested = true;
+    }
+
+    /**
+     * @return the total number of steps dropped because the game fell too far behind
+     */
+    public long getDroppedSteps() {
+        return this.droppedSteps;
+    }
+
+    /**
+     * @return the number of substeps chosen for the most recent step
+     */
+    public int getLastSubsteps() {
+        return this.lastSubsteps;
+    }
+}
@@ -0,0 +1,79 @@
+package dev.lazurite.rayon.core.impl.util.command;
+
+import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.context.CommandContext;
+import dev.lazurite.rayon.core.impl.physics.space.MinecraftSpace;
+import dev.lazurite.rayon.core.impl.physics.util.thread.StepProfiler;
+import net.minecraft.server.command.CommandManager;
+import net.minecraft.server.command.ServerCommandSource;
+import net.minecraft.text.LiteralText;
+
+/**
+ * The <code>/rayon</code> command. Currently only used for reading the {@link StepProfiler}
+ * of the {@link MinecraftSpace} in the sender's world.
+ * <ul>
+ *     <li><code>/rayon profile</code> prints p50/p95/p99/max of each phase</li>
+ *     <li><code>/rayon profile on|off</code> turns profiling on or off for every space</li>
+ *     <li><code>/rayon profile reset</code> clears the sender's space's window</li>
+ * </ul>
+ */
+public final class RayonCommand {
+    private RayonCommand() {
+    }
+
+    public static void register(CommandDispatcher<ServerCommandSource> dispatcher) {
+        dispatcher.register(CommandManager.literal("rayon")
+                .requires(source -> source.hasPermissionLevel(2))
+                .then(CommandManager.literal("profile")
+                        .executes(RayonCommand::print)
+                        .then(CommandManager.literal("on").executes(context -> setEnabled(context, true)))
+                        .then(CommandManager.literal("off").executes(context -> setEnabled(context, false)))
+                        .then(CommandManager.literal("reset").executes(RayonCommand::reset))));
+    }
+
+    private static int setEnabled(CommandContext<ServerCommandSource> context, boolean enabled) {
+        StepProfiler.setEnabled(enabled);
+        context.getSource().sendFeedback(new LiteralText("Rayon profiling " + (enabled ? "enabled" : "disabled")), true);
+        return 1;
+    }
+
+    private static int reset(CommandContext<ServerCommandSource> context) {
+        MinecraftSpace space = MinecraftSpace.getIfPresent(context.getSource().getWorld());
+
+        if (space != null) {
+            space.getProfiler().reset();
+        }
+
+        context.getSource().sendFeedback(new LiteralText("Rayon profile reset"), false);
+        return 1;
+    }
+
+    private static int print(CommandContext<ServerCommandSource> context) {
+        ServerCommandSource source = context.getSource();
+        MinecraftSpace space = MinecraftSpace.getIfPresent(source.getWorld());
+
+        if (!StepProfiler.isEnabled()) {
+            source.sendFeedback(new LiteralText("Rayon profiling is off, use /rayon profile on"), false);
+            return 0;
+        }
+
+        if (space == null || space.getProfiler().getSampleCount() == 0) {
+            source.sendFeedback(new LiteralText("No steps have been profiled in this world yet"), false);
+            return 0;
+        }
+
+        StepProfiler profiler = space.getProfiler();
+        source.sendFeedback(new LiteralText(String.format("Last %d steps (ms) p50 / p95 / p99 / max", profiler.getSampleCount())), false);
+
+        for (StepProfiler.Phase phase : StepProfiler.Phase.values()) {
+            source.sendFeedback(new LiteralText(String.format("  %s: %.3f / %.3f / %.3f / %.3f",
+                    phase.name().toLowerCase(),
+                    profiler.getPercentile(phase, 0.5),
+                    profiler.getPercentile(phase, 0.95),
+                    profiler.getPercentile(phase, 0.99),
+                    profiler.getPercentile(phase, 1.0))), false);
+        }
+
+        return profiler.getSampleCount();
+    }
+}
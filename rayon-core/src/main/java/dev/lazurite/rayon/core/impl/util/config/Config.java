@@ -0,0 +1,249 @@
+package dev.lazurite.rayon.core.impl.util.config;
+
+import com.jme3.bullet.PhysicsSpace;
+import dev.lazurite.rayon.core.impl.RayonCoreCommon;
+import dev.lazurite.rayon.core.impl.physics.PhysicsThread;
+import dev.lazurite.rayon.core.impl.physics.space.environment.TerrainManager;
+import dev.lazurite.rayon.core.impl.physics.space.util.ParallelTerrainScan;
+import dev.lazurite.rayon.core.impl.physics.util.thread.IdleStrategy;
+import net.fabricmc.loader.api.FabricLoader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+/**
+ * A small properties-backed configuration for Rayon Core. The file is stored at
+ * <code>config/rayon-core.properties</code> and is created with the default values
+ * the first time the game is launched. Unknown or malformed values fall back to
+ * their defaults. Until {@link Config#load()} is called (e.g. outside of the game),
+ * every value is its default unless it has been {@link Config#set}.
+ * @see RayonCoreCommon
+ */
+public final class Config {
+    private static final Properties properties = new Properties();
+
+    private Config() { }
+
+    public static void load() {
+        Path path = FabricLoader.getInstance().getConfigDir().resolve("rayon-core.properties");
+
+        if (Files.exists(path)) {
+            try (InputStream in = Files.newInputStream(path)) {
+                properties.load(in);
+            } catch (IOException e) {
+                RayonCoreCommon.LOGGER.error("Unable to read " + path.getFileName());
+                e.printStackTrace();
+            }
+        }
+
+        /* Touch every value so that missing keys are written with their defaults */
+        getIdleStrategy();
+        getWorkerCount();
+        isSharedSingleplayerThreadEnabled();
+        isParallelTerrainScanEnabled();
+        getTerrainScanParallelism();
+        isTimestepAccumulationEnabled();
+        getMaxCatchUpSteps();
+        getMinSubsteps();
+        getMaxSubsteps();
+        getStepBudget();
+        getDistantBodyDistance();
+        isPipelinedSteppingEnabled();
+        isLazySpaceCreationEnabled();
+        getIdleReleaseSeconds();
+        getBroadphase();
+        getBroadphaseExtent();
+        getTerrainMode();
+
+        try (OutputStream out = Files.newOutputStream(path)) {
+            properties.store(out, "Rayon Core");
+        } catch (IOException e) {
+            RayonCoreCommon.LOGGER.error("Unable to write " + path.getFileName());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Overrides a value without writing it to the file. Used by the benchmarks,
+     * which run outside of the game and never call {@link Config#load()}.
+     * @param key the key of the value, e.g. <code>thread.idleStrategy</code>
+     * @param value the new value
+     */
+    public static void set(String key, Object value) {
+        properties.setProperty(key, String.valueOf(value));
+    }
+
+    /**
+     * @return how a {@link PhysicsThread} waits when it has no tasks to run
+     */
+    public static IdleStrategy getIdleStrategy() {
+        return getEnum("thread.idleStrategy", IdleStrategy.class, IdleStrategy.SPIN_THEN_PARK);
+    }
+
+    /**
+     * The number of server physics threads that worlds are spread across. A value
+     * of one keeps every world on a single thread, zero or less uses one thread per
+     * available core minus one for the server thread.
+     * @return the number of server {@link PhysicsThread}s
+     */
+    public static int getWorkerCount() {
+        int count = getInt("thread.workerCount", 1);
+        return count > 0 ? count : Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+    }
+
+    /**
+     * @return whether or not the client runs its tasks on the integrated server's {@link PhysicsThread}
+     */
+    public static boolean isSharedSingleplayerThreadEnabled() {
+        return getBoolean("thread.shareInSingleplayer", false);
+    }
+
+    /**
+     * Only the terrain scan is split across workers, the space is still stepped on its physics thread.
+     * @return whether or not terrain is scanned using {@link ParallelTerrainScan}
+     */
+    public static boolean isParallelTerrainScanEnabled() {
+        return getBoolean("space.parallelTerrainScan", false);
+    }
+
+    /**
+     * @return the number of fork-join workers used by {@link ParallelTerrainScan}
+     */
+    public static int getTerrainScanParallelism() {
+        int count = getInt("space.terrainScanParallelism", 0);
+        return count > 0 ? count : Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+    }
+
+    /**
+     * @return whether or not spaces step by real elapsed time instead of once per tick
+     */
+    public static boolean isTimestepAccumulationEnabled() {
+        return getBoolean("timestep.accumulate", true);
+    }
+
+    /**
+     * @return the most steps a space will take at once to catch up after lagging
+     */
+    public static int getMaxCatchUpSteps() {
+        return getInt("timestep.maxCatchUpSteps", 3);
+    }
+
+    /**
+     * @return the fewest substeps used when every body is calm
+     */
+    public static int getMinSubsteps() {
+        return getInt("timestep.minSubsteps", 2);
+    }
+
+    /**
+     * @return the most substeps used when bodies are moving quickly
+     */
+    public static int getMaxSubsteps() {
+        return getInt("timestep.maxSubsteps", 5);
+    }
+
+    /**
+     * The governor is off by default since it trades accuracy for time, and only pays off on servers which are
+     * regularly overloaded.
+     * @return the time a single space step may take in milliseconds, or zero to disable the governor
+     */
+    public static float getStepBudget() {
+        return getFloat("governor.budget", 0.0f);
+    }
+
+    /**
+     * @return how far a body must be from every player to be throttled or frozen by the governor
+     */
+    public static float getDistantBodyDistance() {
+        return getFloat("governor.distantBodyDistance", 48.0f);
+    }
+
+    /**
+     * @return whether or not the main thread reads published snapshots instead of the native simulation
+     */
+    public static boolean isPipelinedSteppingEnabled() {
+        return getBoolean("space.pipelined", false);
+    }
+
+    /**
+     * @return whether or not a world's space is only created once the first body needs it
+     */
+    public static boolean isLazySpaceCreationEnabled() {
+        return getBoolean("space.lazy", true);
+    }
+
+    /**
+     * @return how long a lazily created space may go without any bodies before it is released, or zero to keep it
+     */
+    public static int getIdleReleaseSeconds() {
+        return getInt("space.idleReleaseSeconds", 60);
+    }
+
+    /**
+     * @return the broadphase used by spaces which don't ask for a specific one
+     */
+    public static PhysicsSpace.BroadphaseType getBroadphase() {
+        return getEnum("space.broadphase", PhysicsSpace.BroadphaseType.class, PhysicsSpace.BroadphaseType.DBVT);
+    }
+
+    /**
+     * Only used by the axis sweep broadphases, which need to know the bounds of the world up front.
+     * Worlds whose border reaches past this use DBVT instead.
+     * @return how far the broadphase extends horizontally from the origin in blocks
+     */
+    public static int getBroadphaseExtent() {
+        return getInt("space.broadphaseExtent", 10000);
+    }
+
+    /**
+     * {@link TerrainManager.Mode#SECTIONS} is the cheapest to step but collides slightly differently from
+     * the other modes, since partial blocks never use pattern shapes (see {@link TerrainManager.Mode}).
+     * @return how terrain is turned into rigid bodies
+     */
+    public static TerrainManager.Mode getTerrainMode() {
+        return getEnum("terrain.mode", TerrainManager.Mode.class, TerrainManager.Mode.BLOCKS);
+    }
+
+    private static String get(String key, Object fallback) {
+        String value = properties.getProperty(key);
+
+        if (value == null) {
+            value = String.valueOf(fallback);
+            properties.setProperty(key, value);
+        }
+
+        return value.trim();
+    }
+
+    private static boolean getBoolean(String key, boolean fallback) {
+        return Boolean.parseBoolean(get(key, fallback));
+    }
+
+    private static int getInt(String key, int fallback) {
+        try {
+            return Integer.parseInt(get(key, fallback));
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+
+    private static float getFloat(String key, float fallback) {
+        try {
+            return Float.parseFloat(get(key, fallback));
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+
+    private static <T extends Enum<T>> T getEnum(String key, Class<T> type, T fallback) {
+        try {
+            return Enum.valueOf(type, get(key, fallback.name()).toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return fallback;
+        }
+    }
+}
@@ -12,12 +12,12 @@ import net.minecraft.util.math.MathHelper;
  * each tick.
  */
 public class Frame {
-    private Vector3f prevLocation;
-    private Vector3f tickLocation;
-    private Quaternion prevRotation;
-    private Quaternion tickRotation;
-    private BoundingBox prevBox;
-    private BoundingBox tickBox;
+    private final Vector3f prevLocation = new Vector3f();
+    private final Vector3f tickLocation = new Vector3f();
+    private final Quaternion prevRotation = new Quaternion();
+    private final Quaternion tickRotation = new Quaternion();
+    private final BoundingBox prevBox = new BoundingBox();
+    private final BoundingBox tickBox = new BoundingBox();
 
     public Frame() {
         this(new Vector3f(), new Quaternion(), new BoundingBox());
@@ -27,13 +27,17 @@ public class Frame {
         this.set(location, location, rotation, rotation, box, box);
     }
 
+    /**
+     * Copies the given values into this frame. None of the
+     * given objects are referenced after this call returns.
+     */
     public void set(Vector3f prevLocation, Vector3f tickLocation, Quaternion prevRotation, Quaternion tickRotation, BoundingBox prevBox, BoundingBox tickBox) {
-        this.prevLocation = prevLocation;
-        this.tickLocation = tickLocation;
-        this.prevRotation = prevRotation;
-        this.tickRotation = tickRotation;
-        this.prevBox = prevBox;
-        this.tickBox = tickBox;
+        this.prevLocation.set(prevLocation);
+        this.tickLocation.set(tickLocation);
+        this.prevRotation.set(prevRotation);
+        this.tickRotation.set(tickRotation);
+        copy(prevBox, this.prevBox);
+        copy(tickBox, this.tickBox);
     }
 
     public void from(Frame frame) {
@@ -41,11 +45,19 @@ public class Frame {
     }
 
     public void from(Frame prevFrame, Vector3f tickLocation, Quaternion tickRotation, BoundingBox tickBox) {
-        this.set(prevFrame.tickLocation, tickLocation, prevFrame.tickRotation, tickRotation, prevFrame.tickBox, tickBox);
+        this.prevLocation.set(prevFrame.tickLocation);
+        this.prevRotation.set(prevFrame.tickRotation);
+        copy(prevFrame.tickBox, this.prevBox);
+        this.tickLocation.set(tickLocation);
+        this.tickRotation.set(tickRotation);
+        copy(tickBox, this.tickBox);
     }
 
     public Vector3f getLocation(Vector3f store, float tickDelta) {
-        return store.set(VectorHelper.lerp(prevLocation, tickLocation, tickDelta));
+        store.x = MathHelper.lerp(tickDelta, prevLocation.x, tickLocation.x);
+        store.y = MathHelper.lerp(tickDelta, prevLocation.y, tickLocation.y);
+        store.z = MathHelper.lerp(tickDelta, prevLocation.z, tickLocation.z);
+        return store;
     }
 
     public Quaternion getRotation(Quaternion store, float tickDelta) {
@@ -60,8 +72,7 @@ public class Frame {
     }
 
     public Vector3f getLocationDelta(Vector3f store) {
-        store.set(tickLocation.subtract(prevLocation));
-        return store;
+        return store.set(tickLocation).subtractLocal(prevLocation);
     }
 
     public Vector3f getRotationDelta(Vector3f store) {
@@ -69,9 +80,23 @@ public class Frame {
         return store;
     }
 
+    /**
+     * @return whether or not the previous and current tick are the same, meaning there is nothing to interpolate
+     */
+    public boolean isSettled() {
+        return prevLocation.equals(tickLocation) && prevRotation.equals(tickRotation);
+    }
+
     public void reset() {
-        this.prevLocation = tickLocation.clone();
-        this.prevRotation = tickRotation.clone();
-        this.prevBox = tickBox;
+        this.prevLocation.set(tickLocation);
+        this.prevRotation.set(tickRotation);
+        copy(tickBox, this.prevBox);
+    }
+
+    private static void copy(BoundingBox from, BoundingBox to) {
+        to.setCenter(from.getCenter());
+        to.setXExtent(from.getXExtent());
+        to.setYExtent(from.getYExtent());
+        to.setZExtent(from.getZExtent());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,187 @@
+package dev.lazurite.rayon.core.impl.util.supplier.entity;
+
+import com.google.common.collect.Lists;
+import dev.lazurite.rayon.core.impl.physics.space.MinecraftSpace;
+import dev.lazurite.rayon.core.impl.physics.space.body.ElementRigidBody;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import net.minecraft.entity.Entity;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Box;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.util.math.Vec3d;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * An immutable copy of every pushable entity in a world, taken on the main thread once per tick
+ * and stored in a spatial hash. Because nothing in here changes after it is published, the
+ * physics thread can look up which entities are inside of a body without going back to the
+ * main thread.
+ * @see MinecraftSpace#captureEntities
+ * @see EntitySupplier
+ */
+public final class EntitySnapshot {
+    public static final EntitySnapshot EMPTY = new EntitySnapshot(0);
+
+    /* Cells are 4x4x4 blocks */
+    private static final int CELL_SHIFT = 2;
+
+    private final List<Entry> entries;
+
+    /* Each cell holds the first node of a linked list of the entries overlapping it */
+    private final Long2IntOpenHashMap cells = new Long2IntOpenHashMap();
+    private int[] nodeEntries;
+    private int[] nodeNext;
+    private int nodes;
+
+    private EntitySnapshot(int expectedEntries) {
+        this.entries = Lists.newArrayListWithCapacity(expectedEntries);
+        this.nodeEntries = new int[Math.max(16, expectedEntries * 2)];
+        this.nodeNext = new int[nodeEntries.length];
+        this.cells.defaultReturnValue(-1);
+    }
+
+    /**
+     * Copies every entity that a {@link ElementRigidBody} is able to push. The spatial hash
+     * is filled in the same pass, so each entity is only looked at once.
+     * Must be called on the main thread.
+     * @param entities all of the entities in the world
+     * @return the new snapshot
+     */
+    public static EntitySnapshot capture(Iterable<Entity> entities) {
+        EntitySnapshot snapshot = null;
+
+        for (Entity entity : entities) {
+            if (ElementRigidBody.canCollideWith(entity)) {
+                if (snapshot == null) {
+                    snapshot = new EntitySnapshot(16);
+                }
+
+                snapshot.add(new Entry(entity, entity.getBoundingBox(), entity.getPos()));
+            }
+        }
+
+        return snapshot == null ? EMPTY : snapshot;
+    }
+
+    private void add(Entry entry) {
+        int index = entries.size();
+        Box box = entry.getBox();
+        entries.add(entry);
+
+        for (int x = cell(box.minX); x <= cell(box.maxX); x++) {
+            for (int y = cell(box.minY); y <= cell(box.maxY); y++) {
+                for (int z = cell(box.minZ); z <= cell(box.maxZ); z++) {
+                    if (nodes == nodeEntries.length) {
+                        nodeEntries = Arrays.copyOf(nodeEntries, nodes * 2);
+                        nodeNext = Arrays.copyOf(nodeNext, nodes * 2);
+                    }
+
+                    long key = BlockPos.asLong(x, y, z);
+                    nodeEntries[nodes] = index;
+                    nodeNext[nodes] = cells.put(key, nodes);
+                    ++nodes;
+                }
+            }
+        }
+    }
+
+    /**
+     * Passes every entity whose box intersects the given box to the consumer exactly once.
+     * @param box the area to search
+     * @param consumer what to do with each entity
+     */
+    public void forEachInside(Box box, Consumer<Entry> consumer) {
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        for (int x = cell(box.minX); x <= cell(box.maxX); x++) {
+            for (int y = cell(box.minY); y <= cell(box.maxY); y++) {
+                for (int z = cell(box.minZ); z <= cell(box.maxZ); z++) {
+                    for (int node = cells.get(BlockPos.asLong(x, y, z)); node >= 0; node = nodeNext[node]) {
+                        Entry entry = entries.get(nodeEntries[node]);
+                        Box entityBox = entry.getBox();
+
+                        /* Only report from the first cell that both boxes share */
+                        if (entityBox.intersects(box) &&
+                                cell(Math.max(entityBox.minX, box.minX)) == x &&
+                                cell(Math.max(entityBox.minY, box.minY)) == y &&
+                                cell(Math.max(entityBox.minZ, box.minZ)) == z) {
+                            consumer.accept(entry);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks whether any entity's box intersects the given box. Cheaper than
+     * {@link EntitySnapshot#forEachInside} since it stops at the first one.
+     * @param box the area to search
+     * @return whether or not there is an entity inside of the box
+     */
+    public boolean anyInside(Box box) {
+        return anyInside(box.minX, box.minY, box.minZ, box.maxX, box.maxY, box.maxZ);
+    }
+
+    /**
+     * Like {@link EntitySnapshot#anyInside(Box)}, but doesn't need a {@link Box} to be allocated.
+     * @return whether or not there is an entity inside of the given bounds
+     */
+    public boolean anyInside(double minX, double minY, double minZ, double maxX, double maxY, double maxZ) {
+        if (entries.isEmpty()) {
+            return false;
+        }
+
+        for (int x = cell(minX); x <= cell(maxX); x++) {
+            for (int y = cell(minY); y <= cell(maxY); y++) {
+                for (int z = cell(minZ); z <= cell(maxZ); z++) {
+                    for (int node = cells.get(BlockPos.asLong(x, y, z)); node >= 0; node = nodeNext[node]) {
+                        if (entries.get(nodeEntries[node]).getBox().intersects(minX, minY, minZ, maxX, maxY, maxZ)) {
+                            return true;
+                        }
+                    }
+                }
+            }
+        }
+
+        return false;
+    }
+
+    public List<Entry> getEntries() {
+        return Collections.unmodifiableList(this.entries);
+    }
+
+    private static int cell(double coordinate) {
+        return MathHelper.floor(coordinate) >> CELL_SHIFT;
+    }
+
+    public static class Entry {
+        private final Entity entity;
+        private final Box box;
+        private final Vec3d pos;
+
+        public Entry(Entity entity, Box box, Vec3d pos) {
+            this.entity = entity;
+            this.box = box;
+            this.pos = pos;
+        }
+
+        public Entity getEntity() {
+            return this.entity;
+        }
+
+        public Box getBox() {
+            return this.box;
+        }
+
+        public Vec3d getPos() {
+            return this.pos;
+        }
+    }
+}
@@ -1,31 +1,46 @@
 package dev.lazurite.rayon.core.impl.util.supplier.entity;
 
 import com.jme3.bounding.BoundingBox;
-import dev.lazurite.rayon.core.impl.physics.PhysicsThread;
-import dev.lazurite.rayon.core.impl.physics.space.MinecraftSpace;
 import dev.lazurite.rayon.core.impl.physics.space.body.ElementRigidBody;
 import dev.lazurite.rayon.core.impl.util.math.BoxHelper;
 import net.minecraft.entity.Entity;
-import net.minecraft.util.math.Box;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
+/**
+ * Finds the entities inside of an {@link ElementRigidBody} using the space's
+ * latest {@link EntitySnapshot}. Safe to call from any thread.
+ * @see EntitySnapshot
+ */
 public interface EntitySupplier {
     static List<Entity> getInsideOf(ElementRigidBody rigidBody) {
-        if (!rigidBody.isInWorld()) {
-            return new ArrayList<>(); // no entities 4 u
-        }
+        return getInsideOf(rigidBody, rigidBody.boundingBox(new BoundingBox()));
+    }
 
-        MinecraftSpace space = rigidBody.getSpace();
-        PhysicsThread thread = space.getThread();
+    /**
+     * Finds the pushable entities inside the given box.
+     * @param rigidBody the body the box belongs to
+     * @param boundingBox the body's bounding box in world space
+     * @return the list of entities
+     */
+    static List<Entity> getInsideOf(ElementRigidBody rigidBody, BoundingBox boundingBox) {
+        List<Entity> out = new ArrayList<>();
+        forEachInsideOf(rigidBody, boundingBox, out::add);
+        return out;
+    }
 
-        if (!thread.getParentThread().equals(Thread.currentThread())) {
-            return CompletableFuture.supplyAsync(() -> getInsideOf(rigidBody), thread.getParentExecutor()).join();
-        } else {
-            Box box = BoxHelper.bulletToMinecraft(rigidBody.boundingBox(new BoundingBox()));
-            return rigidBody.getSpace().getWorld().getEntitiesByClass(Entity.class, box, ElementRigidBody::canCollideWith);
+    /**
+     * Like {@link EntitySupplier#getInsideOf(ElementRigidBody, BoundingBox)}, but passes each
+     * entity to the consumer instead of collecting them into a new list.
+     * @param rigidBody the body the box belongs to
+     * @param boundingBox the body's bounding box in world space
+     * @param consumer what to do with each entity
+     */
+    static void forEachInsideOf(ElementRigidBody rigidBody, BoundingBox boundingBox, Consumer<Entity> consumer) {
+        if (rigidBody.isInWorld()) {
+            rigidBody.getSpace().getEntitySnapshot().forEachInside(BoxHelper.bulletToMinecraft(boundingBox), entry -> consumer.accept(entry.getEntity()));
         }
     }
 }
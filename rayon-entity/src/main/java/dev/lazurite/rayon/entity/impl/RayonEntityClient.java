@@ -4,6 +4,8 @@ import com.jme3.math.Quaternion;
 import com.jme3.math.Vector3f;
 import dev.lazurite.rayon.core.impl.physics.PhysicsThread;
 import dev.lazurite.rayon.core.impl.physics.space.body.ElementRigidBody;
+import dev.lazurite.rayon.core.impl.physics.util.thread.TaskKey;
+import dev.lazurite.rayon.core.impl.physics.util.thread.TaskPriority;
 import dev.lazurite.rayon.core.impl.util.math.QuaternionHelper;
 import dev.lazurite.rayon.core.impl.util.math.VectorHelper;
 import dev.lazurite.rayon.entity.api.EntityPhysicsElement;
@@ -31,8 +33,10 @@ public class RayonEntityClient implements ClientModInitializer {
     @Override
     public void onInitializeClient() {
         ClientEntityEvents.ENTITY_UNLOAD.register((entity, world) -> {
-            if (entity instanceof EntityPhysicsElement) {
-                PhysicsThread.get(world).execute(() -> MinecraftSpace.get(world).unload((EntityPhysicsElement) entity));
+            MinecraftSpace space = MinecraftSpace.getIfPresent(world);
+
+            if (entity instanceof EntityPhysicsElement && space != null) {
+                space.getThread().execute(TaskPriority.LOADING, () -> space.unload((EntityPhysicsElement) entity));
             }
         });
 
@@ -46,7 +50,7 @@ public class RayonEntityClient implements ClientModInitializer {
             Vector3f linearVelocity = VectorHelper.fromBuffer(buf);
             Vector3f angularVelocity = VectorHelper.fromBuffer(buf);
 
-            PhysicsThread.get(client).execute(() -> {
+            new RayonEntityCommon.MovementUpdate(TaskKey.of(RayonEntityCommon.MOVEMENT_UPDATE, worldKey, entityId), reset, update -> {
                 ClientWorld world = (ClientWorld) PhysicsThread.get(client).getWorldSupplier().getWorld(worldKey);
 
                 if (world != null) {
@@ -55,18 +59,22 @@ public class RayonEntityClient implements ClientModInitializer {
                     if (entity instanceof EntityPhysicsElement) {
                         ElementRigidBody rigidBody = ((EntityPhysicsElement) entity).getRigidBody();
 
+                        if (!rigidBody.isInWorld() && update.deferUntilLoaded(PhysicsThread.get(client))) {
+                            return;
+                        }
+
                         rigidBody.setPhysicsRotation(rotation);
                         rigidBody.setPhysicsLocation(location);
                         rigidBody.setLinearVelocity(linearVelocity);
                         rigidBody.setAngularVelocity(angularVelocity);
                         rigidBody.activate();
 
-                        if (reset) {
+                        if (update.isReset()) {
                             rigidBody.scheduleFrameReset();
                         }
                     }
                 }
-            });
+            }).queue(PhysicsThread.get(client));
         });
 
         ClientPlayNetworking.registerGlobalReceiver(RayonEntityCommon.PROPERTIES, (client, handler, buf, sender) -> {
@@ -83,7 +91,7 @@ public class RayonEntityClient implements ClientModInitializer {
             boolean doEntityLoading = buf.readBoolean();
             UUID priorityPlayer = buf.readUuid();
 
-            PhysicsThread.get(client).execute(() -> {
+            PhysicsThread.get(client).execute(TaskPriority.MOVEMENT, TaskKey.of(RayonEntityCommon.PROPERTIES, worldKey, entityId), () -> {
                 ClientWorld world = (ClientWorld) PhysicsThread.get(client).getWorldSupplier().getWorld(worldKey);
 
                 if (world != null) {
@@ -137,7 +145,7 @@ public class RayonEntityClient implements ClientModInitializer {
                         entity.updatePosition(location.x, location.y, location.z);
 
                         world.addEntity(id, entity);
-                        PhysicsThread.get(client).execute(() -> MinecraftSpace.get(world).load((EntityPhysicsElement) entity));
+                        MinecraftSpace.load(world, (EntityPhysicsElement) entity);
                     }
                 }
             });
@@ -7,6 +7,8 @@ import dev.lazurite.rayon.core.api.event.PhysicsSpaceEvents;
 import dev.lazurite.rayon.core.impl.RayonCoreCommon;
 import dev.lazurite.rayon.core.impl.physics.PhysicsThread;
 import dev.lazurite.rayon.core.impl.physics.space.body.ElementRigidBody;
+import dev.lazurite.rayon.core.impl.physics.util.thread.TaskKey;
+import dev.lazurite.rayon.core.impl.physics.util.thread.TaskPriority;
 import dev.lazurite.rayon.core.impl.util.supplier.player.ClientPlayerSupplier;
 import dev.lazurite.rayon.core.impl.util.math.QuaternionHelper;
 import dev.lazurite.rayon.core.impl.util.math.VectorHelper;
@@ -25,6 +27,8 @@ import net.minecraft.world.World;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.function.Consumer;
+
 /**
  * The common entrypoint for Rayon Entity. Handles entity loading/tracking as well
  * as receiving {@link EntityPhysicsElement} movement updates from prioritized clients.
@@ -42,22 +46,23 @@ public class RayonEntityCommon implements ModInitializer {
 	public void onInitialize() {
 		ServerEntityEvents.ENTITY_LOAD.register((entity, world) -> {
 			if (entity instanceof EntityPhysicsElement && !PlayerLookup.tracking(entity).isEmpty()) {
-				MinecraftSpace space = MinecraftSpace.get(entity.getEntityWorld());
-				space.getThread().execute(() -> space.load((EntityPhysicsElement) entity));
+				MinecraftSpace.load(entity.getEntityWorld(), (EntityPhysicsElement) entity);
 			}
 		});
 
 		EntityTrackingEvents.START_TRACKING.register((entity, player) -> {
 			if (entity instanceof EntityPhysicsElement) {
-				MinecraftSpace space = MinecraftSpace.get(entity.getEntityWorld());
-				space.getThread().execute(() -> space.load((EntityPhysicsElement) entity));
+				MinecraftSpace.load(entity.getEntityWorld(), (EntityPhysicsElement) entity);
 			}
 		});
 
 		EntityTrackingEvents.STOP_TRACKING.register((entity, player) -> {
 			if (entity instanceof EntityPhysicsElement && PlayerLookup.tracking(entity).isEmpty()) {
-				MinecraftSpace space = MinecraftSpace.get(entity.getEntityWorld());
-				space.getThread().execute(() -> space.unload((EntityPhysicsElement) entity));
+				MinecraftSpace space = MinecraftSpace.getIfPresent(entity.getEntityWorld());
+
+				if (space != null) {
+					space.getThread().execute(TaskPriority.LOADING, () -> space.unload((EntityPhysicsElement) entity));
+				}
 			}
 		});
 
@@ -96,13 +101,17 @@ public class RayonEntityCommon implements ModInitializer {
 			Vector3f linearVelocity = VectorHelper.fromBuffer(buf);
 			Vector3f angularVelocity = VectorHelper.fromBuffer(buf);
 
-			PhysicsThread.get(server).execute(() -> {
+			new MovementUpdate(TaskKey.of(MOVEMENT_UPDATE, worldKey, entityId, player.getUuid()), reset, update -> {
 				if (world.getRegistryKey().equals(worldKey)) {
 					Entity entity = world.getEntityById(entityId);
 
 					if (entity instanceof EntityPhysicsElement) {
 						ElementRigidBody rigidBody = ((EntityPhysicsElement) entity).getRigidBody();
 
+						if (!rigidBody.isInWorld() && update.deferUntilLoaded(PhysicsThread.get(world))) {
+							return;
+						}
+
 						if (player.equals(rigidBody.getPriorityPlayer())) {
 							rigidBody.setPhysicsRotation(rotation);
 							rigidBody.setPhysicsLocation(location);
@@ -110,7 +119,7 @@ public class RayonEntityCommon implements ModInitializer {
 							rigidBody.setAngularVelocity(angularVelocity);
 							rigidBody.activate();
 
-							if (reset) {
+							if (update.isReset()) {
 								rigidBody.scheduleFrameReset();
 							}
 						}
@@ -118,7 +127,79 @@ public class RayonEntityCommon implements ModInitializer {
 						((EntityPhysicsElement) entity).sendMovementUpdate(false);
 					}
 				}
-			});
+			}).queue(PhysicsThread.get(world));
 		});
 	}
+
+	/**
+	 * A movement update waiting to run on the physics thread. Only the newest update for each entity is kept,
+	 * but if any of the updates it replaced asked for a frame reset (e.g. after a teleport), it still happens.<br>
+	 * Since {@link TaskPriority#MOVEMENT} runs before {@link TaskPriority#LOADING}, an update can reach a body
+	 * which is still waiting to be loaded. Loading would then reset the body and overwrite the update, so
+	 * the update should be deferred using {@link MovementUpdate#deferUntilLoaded} instead. Deferred updates keep
+	 * their key, so newer updates for the same entity are still merged into them instead of piling up.
+	 */
+	public static class MovementUpdate implements Runnable {
+		private final Object key;
+		private final Consumer<MovementUpdate> update;
+		private boolean reset;
+		private boolean deferred;
+
+		/**
+		 * @param key identifies the entity the update is for (see {@link TaskKey})
+		 * @param reset whether or not the update should reset the body's frame
+		 * @param update applies the update to the body
+		 */
+		public MovementUpdate(Object key, boolean reset, Consumer<MovementUpdate> update) {
+			this.key = key;
+			this.reset = reset;
+			this.update = update;
+		}
+
+		@Override
+		public void run() {
+			update.accept(this);
+		}
+
+		/**
+		 * Queues this update using {@link TaskPriority#MOVEMENT}, merged with any update for the same entity that hasn't run yet.
+		 * @param thread the thread to queue the update on
+		 */
+		public void queue(PhysicsThread thread) {
+			thread.execute(TaskPriority.MOVEMENT, key, this, MovementUpdate::merge);
+		}
+
+		/**
+		 * Queues this update again behind any load which is already queued for the body.
+		 * An update is only ever deferred once, so it still runs if no load was queued.
+		 * @param thread the thread to queue the update on
+		 * @return whether or not the update was deferred
+		 */
+		public boolean deferUntilLoaded(PhysicsThread thread) {
+			if (deferred) {
+				return false;
+			}
+
+			deferred = true;
+			thread.execute(TaskPriority.LOADING, key, this, MovementUpdate::merge);
+			return true;
+		}
+
+		public boolean isReset() {
+			return this.reset;
+		}
+
+		/**
+		 * Keeps the newer update, along with the pending update's frame reset. An update merged into a
+		 * deferred one counts as deferred too, so that it doesn't wait behind another round of loading.
+		 * @param pending the update that hasn't run yet
+		 * @param newer the update replacing it
+		 * @return the newer update
+		 */
+		public static Runnable merge(Runnable pending, Runnable newer) {
+			((MovementUpdate) newer).reset |= ((MovementUpdate) pending).reset;
+			((MovementUpdate) newer).deferred |= ((MovementUpdate) pending).deferred;
+			return newer;
+		}
+	}
 }
\ No newline at end of file
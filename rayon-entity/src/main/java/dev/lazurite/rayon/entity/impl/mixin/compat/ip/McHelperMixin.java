@@ -21,13 +21,16 @@ public abstract class McHelperMixin {
     private static void setPosAndLastTickPos(Entity entity, Vec3d pos, Vec3d lastTickPos, CallbackInfo info) {
         if (entity instanceof EntityPhysicsElement) {
             ElementRigidBody rigidBody = ((EntityPhysicsElement) entity).getRigidBody();
-            MinecraftSpace space = MinecraftSpace.get(entity.getEntityWorld());
+            MinecraftSpace space = MinecraftSpace.getIfPresent(entity.getEntityWorld());
 
-            space.getThread().execute(() -> {
-                rigidBody.setPhysicsLocation(VectorHelper.vec3dToVector3f(pos));
-                rigidBody.scheduleFrameReset();
-                ((EntityPhysicsElement) entity).sendMovementUpdate(true);
-            });
+            /* The body picks up the entity's position when it's loaded if there's no space yet */
+            if (space != null) {
+                space.getThread().execute(() -> {
+                    rigidBody.setPhysicsLocation(VectorHelper.vec3dToVector3f(pos));
+                    rigidBody.scheduleFrameReset();
+                    ((EntityPhysicsElement) entity).sendMovementUpdate(true);
+                });
+            }
         }
     }
 
@@ -69,16 +69,16 @@ public class EntityTestMod implements ModInitializer {
                 new Identifier(MODID, "blue_block"),
                 new BlockItem(BLUE_BLOCK, new Item.Settings().group(ItemGroup.MISC)));
 
-        /* An example of a block collision event */
-        ElementCollisionEvents.BLOCK_COLLISION.register((executor, element, block, impulse) -> {
+        /* An example of a block impact event, which only fires once per step for each block touched */
+        ElementCollisionEvents.BLOCK_IMPACT.register(ElementCollisionEvents.BlockImpact.atLeast(0.1f, (executor, element, block, blockPos, blockState, impulse, peakImpulse) -> {
             executor.execute(() -> {
                 if (element instanceof CubeEntity) {
-                    if (block.getBlockState().getBlock().equals(Blocks.BRICKS)) {
+                    if (blockState.getBlock().equals(Blocks.BRICKS)) {
                         LOGGER.info("Touching bricks!!" + impulse);
                         ((CubeEntity) element).kill();
                     }
                 }
             });
-        });
+        }));
     }
 }